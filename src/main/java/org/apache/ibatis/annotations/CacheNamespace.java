@@ -35,6 +35,10 @@ import org.apache.ibatis.cache.impl.PerpetualCache;
 public @interface CacheNamespace {
   Class<? extends Cache> implementation() default PerpetualCache.class;
 
+  /**
+   * The eviction decorator. {@link LruCache}, the default, is not applied to implementations that are
+   * {@link org.apache.ibatis.cache.ThreadSafeCache thread safe}, since it would need to be synchronized.
+   */
   Class<? extends Cache> eviction() default LruCache.class;
 
   long flushInterval() default 0;
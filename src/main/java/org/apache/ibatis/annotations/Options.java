@@ -63,4 +63,12 @@ public @interface Options {
   String keyColumn() default "";
 
   String resultSets() default "";
+
+  /**
+   * The number of rows a cursor returned by the statement maps ahead of its consumer on another thread.
+   * While such a cursor is open, its session must not run other statements. 0 does not prefetch.
+   *
+   * @since 3.5.3
+   */
+  int cursorPrefetchDepth() default 0;
 }
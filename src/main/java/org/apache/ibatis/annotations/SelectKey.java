@@ -41,4 +41,12 @@ public @interface SelectKey {
   Class<?> resultType();
 
   StatementType statementType() default StatementType.PREPARED;
+
+  /**
+   * Whether the statement returns a block of keys, handed out one per insert before it is executed again.
+   * Only used when {@link #before()} is true, and only allowed for a static statement without parameters.
+   *
+   * @since 3.5.3
+   */
+  boolean prefetch() default false;
 }
@@ -19,14 +19,18 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorPublisher;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.StatementType;
@@ -37,6 +41,7 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
 
 /**
  * @author Clinton Begin
@@ -52,9 +57,30 @@ public class MapperMethod {
   public MapperMethod(Class<?> mapperInterface, Method method, Configuration config) {
     this.command = new SqlCommand(config, mapperInterface, method);
     this.method = new MethodSignature(config, mapperInterface, method);
+    if (this.method.returnsAsync() && this.command.getType() != SqlCommandType.SELECT) {
+      // a write in a session of its own would escape the transaction of the caller
+      throw new BindingException("Mapper method '" + this.command.getName()
+          + "' cannot return a future because only selects can run asynchronously");
+    }
   }
 
   public Object execute(SqlSession sqlSession, Object[] args) {
+    if (method.returnsAsync()) {
+      return executeAsync(sqlSession.getConfiguration(), args);
+    }
+    return executeNow(sqlSession, args);
+  }
+
+  private CompletableFuture<Object> executeAsync(Configuration configuration, Object[] args) {
+    // the calling session is bound to its thread, so the statement runs in a session of its own
+    return CompletableFuture.supplyAsync(() -> {
+      try (SqlSession sqlSession = new DefaultSqlSessionFactory(configuration).openSession()) {
+        return executeNow(sqlSession, args);
+      }
+    }, configuration.getAsyncExecutor());
+  }
+
+  private Object executeNow(SqlSession sqlSession, Object[] args) {
     Object result;
     switch (command.getType()) {
       case INSERT: {
@@ -82,6 +108,8 @@ public class MapperMethod {
           result = executeForMap(sqlSession, args);
         } else if (method.returnsCursor()) {
           result = executeForCursor(sqlSession, args);
+        } else if (method.returnsCursorPublisher()) {
+          result = new CursorPublisher<>(executeForCursor(sqlSession, args));
         } else {
           Object param = method.convertArgsToSqlCommandParam(args);
           result = sqlSession.selectOne(command.getName(), param);
@@ -281,7 +309,9 @@ public class MapperMethod {
     private final boolean returnsMap;
     private final boolean returnsVoid;
     private final boolean returnsCursor;
+    private final boolean returnsCursorPublisher;
     private final boolean returnsOptional;
+    private final boolean returnsAsync;
     private final Class<?> returnType;
     private final String mapKey;
     private final Integer resultHandlerIndex;
@@ -290,7 +320,12 @@ public class MapperMethod {
 
     public MethodSignature(Configuration configuration, Class<?> mapperInterface, Method method) {
       Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, mapperInterface);
-      if (resolvedReturnType instanceof Class<?>) {
+      this.returnsAsync = CompletableFuture.class.equals(method.getReturnType())
+          || CompletionStage.class.equals(method.getReturnType());
+      if (this.returnsAsync) {
+        // the other properties describe the result the future completes with
+        this.returnType = resolveFutureResultType(resolvedReturnType);
+      } else if (resolvedReturnType instanceof Class<?>) {
         this.returnType = (Class<?>) resolvedReturnType;
       } else if (resolvedReturnType instanceof ParameterizedType) {
         this.returnType = (Class<?>) ((ParameterizedType) resolvedReturnType).getRawType();
@@ -300,9 +335,13 @@ public class MapperMethod {
       this.returnsVoid = void.class.equals(this.returnType);
       this.returnsMany = configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray();
       this.returnsCursor = Cursor.class.equals(this.returnType);
+      this.returnsCursorPublisher = CursorPublisher.class.equals(this.returnType);
       this.returnsOptional = Optional.class.equals(this.returnType);
-      this.mapKey = getMapKey(method);
+      this.mapKey = getMapKey(method, this.returnsAsync ? this.returnType : method.getReturnType());
       this.returnsMap = this.mapKey != null;
+      if (this.returnsAsync && (this.returnsCursor || this.returnsCursorPublisher)) {
+        throw new BindingException(method.getName() + " cannot return a Cursor asynchronously");
+      }
       this.rowBoundsIndex = getUniqueParamIndex(method, RowBounds.class);
       this.resultHandlerIndex = getUniqueParamIndex(method, ResultHandler.class);
       this.paramNameResolver = new ParamNameResolver(configuration, method);
@@ -352,6 +391,15 @@ public class MapperMethod {
       return returnsCursor;
     }
 
+    /**
+     * return whether return type is {@link CursorPublisher}.
+     * @return return {@code true}, if return type is {@link CursorPublisher}
+     * @since 3.5.3
+     */
+    public boolean returnsCursorPublisher() {
+      return returnsCursorPublisher;
+    }
+
     /**
      * return whether return type is {@code java.util.Optional}.
      * @return return {@code true}, if return type is {@code java.util.Optional}
@@ -361,6 +409,32 @@ public class MapperMethod {
       return returnsOptional;
     }
 
+    /**
+     * return whether return type is {@code java.util.concurrent.CompletableFuture} or
+     * {@code java.util.concurrent.CompletionStage}.
+     * @return return {@code true}, if the statement runs asynchronously
+     * @since 3.5.3
+     */
+    public boolean returnsAsync() {
+      return returnsAsync;
+    }
+
+    private static Class<?> resolveFutureResultType(Type futureType) {
+      if (!(futureType instanceof ParameterizedType)) {
+        return Object.class;
+      }
+      Type resultType = ((ParameterizedType) futureType).getActualTypeArguments()[0];
+      if (resultType instanceof WildcardType) {
+        resultType = ((WildcardType) resultType).getUpperBounds()[0];
+      }
+      if (resultType instanceof Class<?>) {
+        return Void.class.equals(resultType) ? void.class : (Class<?>) resultType;
+      } else if (resultType instanceof ParameterizedType) {
+        return (Class<?>) ((ParameterizedType) resultType).getRawType();
+      }
+      return Object.class;
+    }
+
     private Integer getUniqueParamIndex(Method method, Class<?> paramType) {
       Integer index = null;
       final Class<?>[] argTypes = method.getParameterTypes();
@@ -376,9 +450,9 @@ public class MapperMethod {
       return index;
     }
 
-    private String getMapKey(Method method) {
+    private String getMapKey(Method method, Class<?> returnType) {
       String mapKey = null;
-      if (Map.class.isAssignableFrom(method.getReturnType())) {
+      if (Map.class.isAssignableFrom(returnType)) {
         final MapKey mapKeyAnnotation = method.getAnnotation(MapKey.class);
         if (mapKeyAnnotation != null) {
           mapKey = mapKeyAnnotation.value();
@@ -23,6 +23,7 @@ import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -34,6 +35,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.ibatis.annotations.Arg;
 import org.apache.ibatis.annotations.CacheNamespace;
@@ -66,6 +69,9 @@ import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.ThreadSafeCache;
+import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
@@ -196,7 +202,12 @@ public class MapperAnnotationBuilder {
       Integer size = cacheDomain.size() == 0 ? null : cacheDomain.size();
       Long flushInterval = cacheDomain.flushInterval() == 0 ? null : cacheDomain.flushInterval();
       Properties props = convertToProperties(cacheDomain.properties());
-      assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, size, cacheDomain.readWrite(), cacheDomain.blocking(), props);
+      Class<? extends Cache> eviction = cacheDomain.eviction();
+      if (LruCache.class.equals(eviction) && ThreadSafeCache.class.isAssignableFrom(cacheDomain.implementation())) {
+        // the default eviction would synchronize a thread safe implementation
+        eviction = null;
+      }
+      assistant.useNewCache(cacheDomain.implementation(), eviction, flushInterval, size, cacheDomain.readWrite(), cacheDomain.blocking(), props);
     }
   }
 
@@ -385,7 +396,12 @@ public class MapperAnnotationBuilder {
           null,
           languageDriver,
           // ResultSets
-          options != null ? nullOrEmpty(options.resultSets()) : null);
+          options != null ? nullOrEmpty(options.resultSets()) : null,
+          // Tables
+          null,
+          // BatchDependsOn
+          null,
+          options != null ? options.cursorPrefetchDepth() : null);
     }
   }
 
@@ -415,8 +431,11 @@ public class MapperAnnotationBuilder {
   }
 
   private Class<?> getReturnType(Method method) {
+    return getReturnType(method, TypeParameterResolver.resolveReturnType(method, type));
+  }
+
+  private Class<?> getReturnType(Method method, Type resolvedReturnType) {
     Class<?> returnType = method.getReturnType();
-    Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, type);
     if (resolvedReturnType instanceof Class) {
       returnType = (Class<?>) resolvedReturnType;
       if (returnType.isArray()) {
@@ -465,6 +484,15 @@ public class MapperAnnotationBuilder {
         if (returnTypeParameter instanceof Class<?>) {
           returnType = (Class<?>) returnTypeParameter;
         }
+      } else if (CompletableFuture.class.equals(rawType) || CompletionStage.class.equals(rawType)) {
+        // the statement maps the value the future completes with, which may itself be a collection, array or Optional
+        Type returnTypeParameter = parameterizedType.getActualTypeArguments()[0];
+        if (returnTypeParameter instanceof WildcardType) {
+          returnTypeParameter = ((WildcardType) returnTypeParameter).getUpperBounds()[0];
+        }
+        if (returnTypeParameter instanceof Class<?> || returnTypeParameter instanceof ParameterizedType) {
+          returnType = getReturnType(method, returnTypeParameter);
+        }
       }
     }
 
@@ -668,7 +696,7 @@ public class MapperAnnotationBuilder {
     id = assistant.applyCurrentNamespace(id, false);
 
     MappedStatement keyStatement = configuration.getMappedStatement(id, false);
-    SelectKeyGenerator answer = new SelectKeyGenerator(keyStatement, executeBefore);
+    SelectKeyGenerator answer = new SelectKeyGenerator(keyStatement, executeBefore, selectKeyAnnotation.prefetch());
     configuration.addKeyGenerator(id, answer);
     return answer;
   }
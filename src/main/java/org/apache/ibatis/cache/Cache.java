@@ -74,6 +74,20 @@ public interface Cache {
    */
   Object removeObject(Object key);
 
+  /**
+   * Removes an entry that is no longer valid, for instance because a table it was read from has been written.
+   * <p>
+   * Unlike {@link #removeObject(Object)}, which a blocking cache uses to release its locks, this removes the
+   * entry from the underlying cache and from the bookkeeping of every decorator (LRU order, weights...).
+   * Decorators that keep such bookkeeping must override this method and call it on their delegate.
+   *
+   * @param key The key
+   * @since 3.5.3
+   */
+  default void evictObject(Object key) {
+    removeObject(key);
+  }
+
   /**
    * Clears this cache instance.
    */
@@ -0,0 +1,40 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * SPI for the binary format of the values stored by caches that keep their data outside of the Java heap,
+ * such as {@link org.apache.ibatis.cache.impl.OffHeapCache}.
+ * <p>
+ * Implementations must have a public no-argument constructor and be thread safe.
+ *
+ * @since 3.5.3
+ */
+public interface CacheCodec {
+
+  /**
+   * @param value The result of a select, never null
+   * @return The bytes to store
+   */
+  byte[] encode(Object value);
+
+  /**
+   * @param bytes Bytes previously returned by {@link #encode(Object)}
+   * @return A copy of the encoded value
+   */
+  Object decode(byte[] bytes);
+
+}
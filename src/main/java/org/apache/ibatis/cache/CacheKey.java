@@ -16,8 +16,7 @@
 package org.apache.ibatis.cache;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.StringJoiner;
 
 import org.apache.ibatis.reflection.ArrayUtil;
@@ -27,7 +26,7 @@ import org.apache.ibatis.reflection.ArrayUtil;
  */
 public class CacheKey implements Cloneable, Serializable {
 
-  private static final long serialVersionUID = 1146682552656046210L;
+  private static final long serialVersionUID = -2540497311232440787L;
 
   public static final CacheKey NULL_CACHE_KEY = new CacheKey(){
     @Override
@@ -38,44 +37,63 @@ public class CacheKey implements Cloneable, Serializable {
     public void updateAll(Object[] objects) {
       throw new CacheException("Not allowed to update a null cache key instance.");
     }
+    @Override
+    public void updateFingerprint(CharSequence text) {
+      throw new CacheException("Not allowed to update a null cache key instance.");
+    }
   };
 
-  private static final int DEFAULT_MULTIPLYER = 37;
-  private static final int DEFAULT_HASHCODE = 17;
+  private static final Object[] EMPTY_UPDATE_LIST = {};
+  private static final int DEFAULT_CAPACITY = 8;
+  private static final long DEFAULT_HASHCODE = 17;
+  private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+  private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+  private static final long FNV_PRIME = 0x100000001B3L;
 
-  private final int multiplier;
-  private int hashcode;
+  private long hashcode;
   private long checksum;
   private int count;
   // 8/21/2017 - Sonarlint flags this as needing to be marked transient.  While true if content is not serializable, this is not always true and thus should not be marked transient.
-  private List<Object> updateList;
+  private Object[] updateList;
 
   public CacheKey() {
     this.hashcode = DEFAULT_HASHCODE;
-    this.multiplier = DEFAULT_MULTIPLYER;
     this.count = 0;
-    this.updateList = new ArrayList<>();
+    this.updateList = EMPTY_UPDATE_LIST;
   }
 
-  public CacheKey(Object[] objects) {
+  /**
+   * Creates a key sized for the given number of updates, so that building it does not reallocate.
+   *
+   * @param expectedUpdateCount the number of components expected
+   * @since 3.5.3
+   */
+  public CacheKey(int expectedUpdateCount) {
     this();
+    if (expectedUpdateCount > 0) {
+      this.updateList = new Object[expectedUpdateCount];
+    }
+  }
+
+  public CacheKey(Object[] objects) {
+    this(objects.length);
     updateAll(objects);
   }
 
   public int getUpdateCount() {
-    return updateList.size();
+    return count;
   }
 
   public void update(Object object) {
     int baseHashCode = object == null ? 1 : ArrayUtil.hashCode(object);
 
-    count++;
     checksum += baseHashCode;
-    baseHashCode *= count;
-
-    hashcode = multiplier * hashcode + baseHashCode;
+    hashcode = mix(hashcode ^ (baseHashCode & 0xFFFFFFFFL));
 
-    updateList.add(object);
+    if (count == updateList.length) {
+      updateList = Arrays.copyOf(updateList, Math.max(DEFAULT_CAPACITY, count << 1));
+    }
+    updateList[count++] = object;
   }
 
   public void updateAll(Object[] objects) {
@@ -84,6 +102,20 @@ public class CacheKey implements Cloneable, Serializable {
     }
   }
 
+  /**
+   * Updates the key with a 64-bit fingerprint of the text instead of the text itself.
+   * <p>
+   * This is meant for long texts such as SQL statements: the key does not retain them and comparing two keys
+   * does not walk them again. Two different texts of the same length can only produce an equal key if their
+   * fingerprints collide.
+   *
+   * @param text the text to fingerprint
+   * @since 3.5.3
+   */
+  public void updateFingerprint(CharSequence text) {
+    update(text == null ? null : new Fingerprint(text));
+  }
+
   @Override
   public boolean equals(Object object) {
     if (this == object) {
@@ -105,9 +137,9 @@ public class CacheKey implements Cloneable, Serializable {
       return false;
     }
 
-    for (int i = 0; i < updateList.size(); i++) {
-      Object thisObject = updateList.get(i);
-      Object thatObject = cacheKey.updateList.get(i);
+    for (int i = 0; i < count; i++) {
+      Object thisObject = updateList[i];
+      Object thatObject = cacheKey.updateList[i];
       if (!ArrayUtil.equals(thisObject, thatObject)) {
         return false;
       }
@@ -117,23 +149,78 @@ public class CacheKey implements Cloneable, Serializable {
 
   @Override
   public int hashCode() {
-    return hashcode;
+    return (int) (hashcode ^ (hashcode >>> 32));
   }
 
   @Override
   public String toString() {
     StringJoiner returnValue = new StringJoiner(":");
-    returnValue.add(String.valueOf(hashcode));
+    returnValue.add(String.valueOf(hashCode()));
     returnValue.add(String.valueOf(checksum));
-    updateList.stream().map(ArrayUtil::toString).forEach(returnValue::add);
+    for (int i = 0; i < count; i++) {
+      returnValue.add(ArrayUtil.toString(updateList[i]));
+    }
     return returnValue.toString();
   }
 
   @Override
   public CacheKey clone() throws CloneNotSupportedException {
     CacheKey clonedCacheKey = (CacheKey) super.clone();
-    clonedCacheKey.updateList = new ArrayList<>(updateList);
+    // leave room for the update that usually follows a clone
+    clonedCacheKey.updateList = Arrays.copyOf(updateList, count + 1);
     return clonedCacheKey;
   }
 
+  private static long mix(long h) {
+    // MurmurHash3 fmix64 finalizer
+    h *= MULTIPLIER;
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private static final class Fingerprint implements Serializable {
+
+    private static final long serialVersionUID = 3504312718373627381L;
+
+    private final long hash;
+    private final int length;
+
+    Fingerprint(CharSequence text) {
+      long h = FNV_OFFSET_BASIS;
+      int length = text.length();
+      for (int i = 0; i < length; i++) {
+        h ^= text.charAt(i);
+        h *= FNV_PRIME;
+      }
+      this.hash = mix(h);
+      this.length = length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Fingerprint)) {
+        return false;
+      }
+      Fingerprint other = (Fingerprint) o;
+      return hash == other.hash && length == other.length;
+    }
+
+    @Override
+    public int hashCode() {
+      return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public String toString() {
+      return Long.toHexString(hash) + "/" + length;
+    }
+  }
+
 }
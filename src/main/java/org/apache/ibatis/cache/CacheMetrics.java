@@ -0,0 +1,65 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * Receives the events of a second level cache, to export them to a metrics system.
+ * <p>
+ * Events are reported by the decorators of the cache and by the executor, from any thread, so implementations
+ * must be thread safe and cheap.
+ *
+ * @since 3.5.3
+ * @see CacheMetricsFactory
+ */
+public interface CacheMetrics {
+
+  /**
+   * Called once the cache and its decorators have been built, for instance to export its size.
+   *
+   * @param cache the outermost decorator of the cache
+   */
+  default void setCache(Cache cache) {
+    // NOP
+  }
+
+  void recordHit();
+
+  void recordMiss();
+
+  void recordPut();
+
+  /**
+   * Called when an entry is removed to make room for another one or because it expired.
+   */
+  void recordEviction();
+
+  void recordClear();
+
+  /**
+   * Called when a value is not cached because the cache cannot hold it, for instance because it is too large.
+   */
+  default void recordRejection() {
+    // NOP
+  }
+
+  /**
+   * Called when a query has been executed because its result was not cached.
+   *
+   * @param nanos the execution time of the query in nanoseconds
+   */
+  void recordLoad(long nanos);
+
+}
@@ -0,0 +1,32 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * Creates the {@link CacheMetrics} of each second level cache. It is configured with the
+ * {@code cacheMetricsFactory} setting.
+ *
+ * @since 3.5.3
+ */
+public interface CacheMetricsFactory {
+
+  /**
+   * @param cacheId the id of the cache, which is the namespace that declares it
+   * @return the metrics of the cache
+   */
+  CacheMetrics create(String cacheId);
+
+}
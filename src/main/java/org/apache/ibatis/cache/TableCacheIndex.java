@@ -0,0 +1,191 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Remembers which tables each second level cache entry was read from, so that a write can remove only the
+ * entries it affects, whatever the namespace of their cache.
+ * <p>
+ * Entries read by statements whose tables are unknown are registered under {@link #ANY_TABLE} and are removed
+ * by every write. A write whose tables are unknown removes every registered entry.
+ * <p>
+ * Caches do not tell when they evict an entry, so the keys registered for a table and a cache are bounded: once
+ * they are more than twice the size of the cache, the oldest ones are removed from the cache and forgotten.
+ *
+ * @since 3.5.3
+ * @see org.apache.ibatis.session.CacheInvalidationScope#TABLE
+ */
+public class TableCacheIndex {
+
+  public static final String ANY_TABLE = "*";
+
+  private static final int MIN_KEYS_PER_CACHE = 64;
+
+  private final Map<String, Map<Cache, RegisteredKeys>> entries = new ConcurrentHashMap<>();
+  private final ReadWriteLock commitLock = new ReentrantReadWriteLock();
+
+  /**
+   * Registers an entry that has just been put in a cache.
+   *
+   * @param cache the cache holding the entry
+   * @param key the key of the entry
+   * @param tables the tables the entry was read from, empty if unknown
+   */
+  public void register(Cache cache, Object key, Collection<String> tables) {
+    if (tables.isEmpty()) {
+      register(ANY_TABLE, cache, key);
+    } else {
+      for (String table : tables) {
+        register(table, cache, key);
+      }
+    }
+  }
+
+  /**
+   * Removes from their caches all the entries read from any of the given tables.
+   *
+   * @param tables the tables written, empty or containing {@link #ANY_TABLE} if unknown
+   */
+  public void invalidate(Collection<String> tables) {
+    if (tables.isEmpty() || tables.contains(ANY_TABLE)) {
+      for (String table : entries.keySet()) {
+        invalidate(table);
+      }
+    } else {
+      for (String table : tables) {
+        invalidate(table);
+      }
+      invalidate(ANY_TABLE);
+    }
+  }
+
+  /**
+   * Forgets all the entries of a cache, typically because it has been cleared.
+   *
+   * @param cache the cache
+   */
+  public void clear(Cache cache) {
+    for (Map<Cache, RegisteredKeys> caches : entries.values()) {
+      caches.remove(cache);
+    }
+  }
+
+  /**
+   * @param table the table
+   * @return the number of keys registered for the table, in all caches
+   */
+  public int getKeyCount(String table) {
+    Map<Cache, RegisteredKeys> caches = entries.get(table);
+    if (caches == null) {
+      return 0;
+    }
+    int count = 0;
+    for (RegisteredKeys keys : caches.values()) {
+      count += keys.size();
+    }
+    return count;
+  }
+
+  /**
+   * Runs the commit of a session, applying its invalidations first.
+   * <p>
+   * Commits that invalidate entries run one at a time, so that no other session can register, in the middle of
+   * an invalidation, an entry read before the write. Commits that only add entries run concurrently.
+   *
+   * @param tables the tables written by the session, or null if it did not write
+   * @param flush puts the entries read by the session into their caches
+   */
+  public void commit(Collection<String> tables, Runnable flush) {
+    Lock lock = tables == null ? commitLock.readLock() : commitLock.writeLock();
+    lock.lock();
+    try {
+      if (tables != null) {
+        invalidate(tables);
+      }
+      flush.run();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void invalidate(String table) {
+    Map<Cache, RegisteredKeys> caches = entries.remove(table);
+    if (caches == null) {
+      return;
+    }
+    for (Map.Entry<Cache, RegisteredKeys> entry : caches.entrySet()) {
+      removeEntries(entry.getKey(), entry.getValue().removeAll());
+    }
+  }
+
+  private void register(String table, Cache cache, Object key) {
+    RegisteredKeys keys = entries.computeIfAbsent(table, k -> new ConcurrentHashMap<>())
+        .computeIfAbsent(cache, k -> new RegisteredKeys());
+    removeEntries(cache, keys.add(key, Math.max(cache.getSize(), MIN_KEYS_PER_CACHE)));
+  }
+
+  private void removeEntries(Cache cache, Collection<Object> keys) {
+    for (Object key : keys) {
+      cache.evictObject(key);
+    }
+  }
+
+  private static final class RegisteredKeys {
+    private final Set<Object> keys = new LinkedHashSet<>();
+
+    /**
+     * @return the oldest keys forgotten to keep at most {@code limit} keys, once there are more than twice as many
+     */
+    synchronized Collection<Object> add(Object key, int limit) {
+      keys.remove(key);
+      keys.add(key);
+      if (keys.size() <= limit * 2) {
+        return Collections.emptyList();
+      }
+      List<Object> oldest = new ArrayList<>(keys.size() - limit);
+      Iterator<Object> iterator = keys.iterator();
+      while (keys.size() > limit) {
+        oldest.add(iterator.next());
+        iterator.remove();
+      }
+      return oldest;
+    }
+
+    synchronized Collection<Object> removeAll() {
+      List<Object> all = new ArrayList<>(keys);
+      keys.clear();
+      return all;
+    }
+
+    synchronized int size() {
+      return keys.size();
+    }
+  }
+
+}
@@ -15,8 +15,12 @@
  */
 package org.apache.ibatis.cache;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.ibatis.cache.decorators.TransactionalCache;
 
@@ -26,6 +30,20 @@ import org.apache.ibatis.cache.decorators.TransactionalCache;
 public class TransactionalCacheManager {
 
   private final Map<Cache, TransactionalCache> transactionalCaches = new HashMap<>();
+  private final TableCacheIndex tableCacheIndex;
+  private Set<String> tablesToInvalidateOnCommit;
+
+  public TransactionalCacheManager() {
+    this(null);
+  }
+
+  /**
+   * @param tableCacheIndex the index used to invalidate entries by table, or null to only clear whole caches
+   * @since 3.5.3
+   */
+  public TransactionalCacheManager(TableCacheIndex tableCacheIndex) {
+    this.tableCacheIndex = tableCacheIndex;
+  }
 
   public void clear(Cache cache) {
     getTransactionalCache(cache).clear();
@@ -39,9 +57,53 @@ public class TransactionalCacheManager {
     getTransactionalCache(cache).putObject(key, value);
   }
 
-  public void commit() {
+  /**
+   * @param cache the cache
+   * @param key the key
+   * @param value the value
+   * @param tables the tables the value was read from, empty if unknown
+   * @since 3.5.3
+   */
+  public void putObject(Cache cache, CacheKey key, Object value, Collection<String> tables) {
+    getTransactionalCache(cache).putObject(key, value, tables);
+  }
+
+  /**
+   * Schedules the removal, on commit, of the entries of every cache read from any of the given tables.
+   *
+   * @param tables the tables written, empty if unknown
+   * @since 3.5.3
+   */
+  public void invalidate(Collection<String> tables) {
+    Collection<String> written = tables.isEmpty() ? Collections.singleton(TableCacheIndex.ANY_TABLE) : tables;
+    if (tablesToInvalidateOnCommit == null) {
+      tablesToInvalidateOnCommit = new HashSet<>();
+    }
+    tablesToInvalidateOnCommit.addAll(written);
     for (TransactionalCache txCache : transactionalCaches.values()) {
-      txCache.commit();
+      txCache.invalidate(written);
+    }
+  }
+
+  /**
+   * @param tables the tables a statement reads, empty if unknown
+   * @return true if this transaction wrote any of them, so the cached entries may be stale
+   * @since 3.5.3
+   */
+  public boolean isInvalidated(Collection<String> tables) {
+    if (tablesToInvalidateOnCommit == null) {
+      return false;
+    }
+    return tables.isEmpty() || tablesToInvalidateOnCommit.contains(TableCacheIndex.ANY_TABLE)
+        || !Collections.disjoint(tablesToInvalidateOnCommit, tables);
+  }
+
+  public void commit() {
+    if (tableCacheIndex == null) {
+      commitTransactionalCaches();
+    } else {
+      tableCacheIndex.commit(tablesToInvalidateOnCommit, this::commitTransactionalCaches);
+      tablesToInvalidateOnCommit = null;
     }
   }
 
@@ -49,10 +111,17 @@ public class TransactionalCacheManager {
     for (TransactionalCache txCache : transactionalCaches.values()) {
       txCache.rollback();
     }
+    tablesToInvalidateOnCommit = null;
+  }
+
+  private void commitTransactionalCaches() {
+    for (TransactionalCache txCache : transactionalCaches.values()) {
+      txCache.commit();
+    }
   }
 
   private TransactionalCache getTransactionalCache(Cache cache) {
-    return transactionalCaches.computeIfAbsent(cache, TransactionalCache::new);
+    return transactionalCaches.computeIfAbsent(cache, c -> new TransactionalCache(c, tableCacheIndex));
   }
 
 }
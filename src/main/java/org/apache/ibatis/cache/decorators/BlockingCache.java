@@ -15,13 +15,17 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.ThreadSafeCache;
 
 /**
  * Simple blocking decorator
@@ -29,19 +33,34 @@ import org.apache.ibatis.cache.CacheException;
  * Simple and inefficient version of EhCache's BlockingCache decorator.
  * It sets a lock over a cache key when the element is not found in cache.
  * This way, other threads will wait until this element is filled instead of hitting the database.
+ * <p>
+ * The first thread that misses a key becomes its leader: it gets null and is expected to put the value, or to
+ * remove the key if it could not load it. The other threads wait on a future completed by the leader, at most
+ * {@code timeout} milliseconds if set, and then read the value through the delegate again. When the leader removes
+ * the key, for instance because its transaction rolled back, one of the waiting threads becomes the new leader.
+ * <p>
+ * With {@code staleWhileRevalidate}, threads that miss a key while its leader reloads it get the last value put
+ * for that key instead of waiting, if it is still softly reachable. Since such a value is shared, this should
+ * only be used with read-only caches. Clearing the cache, putting null for a key or removing it discards its last
+ * value, and last values collected by the garbage collector are discarded with their keys.
  *
  * @author Eduardo Macarron
  *
  */
-public class BlockingCache implements Cache {
+public class BlockingCache implements ThreadSafeCache {
 
   private long timeout;
+  private boolean staleWhileRevalidate;
   private final Cache delegate;
-  private final ConcurrentHashMap<Object, ReentrantLock> locks;
+  private final ConcurrentHashMap<Object, Flight> flights;
+  private final ConcurrentHashMap<Object, LastValue> lastValues;
+  private final ReferenceQueue<Object> queueOfGarbageCollectedValues;
 
   public BlockingCache(Cache delegate) {
     this.delegate = delegate;
-    this.locks = new ConcurrentHashMap<>();
+    this.flights = new ConcurrentHashMap<>();
+    this.lastValues = new ConcurrentHashMap<>();
+    this.queueOfGarbageCollectedValues = new ReferenceQueue<>();
   }
 
   @Override
@@ -58,57 +77,118 @@ public class BlockingCache implements Cache {
   public void putObject(Object key, Object value) {
     try {
       delegate.putObject(key, value);
+      if (staleWhileRevalidate) {
+        removeGarbageCollectedValues();
+        if (value == null) {
+          lastValues.remove(key);
+        } else {
+          lastValues.put(key, new LastValue(key, value, queueOfGarbageCollectedValues));
+        }
+      }
     } finally {
-      releaseLock(key);
+      land(key, value);
     }
   }
 
   @Override
   public Object getObject(Object key) {
-    acquireLock(key);
-    Object value = delegate.getObject(key);
-    if (value != null) {
-      releaseLock(key);
+    for (;;) {
+      Object value = delegate.getObject(key);
+      if (value != null) {
+        return value;
+      }
+      Flight flight = new Flight();
+      Flight current = flights.putIfAbsent(key, flight);
+      if (current == null) {
+        // a value may have been put between the first read and the take off
+        value = delegate.getObject(key);
+        if (value != null) {
+          land(key, value);
+        }
+        return value;
+      }
+      if (current.leader == Thread.currentThread()) {
+        return null;
+      }
+      value = staleValue(key);
+      if (value != null) {
+        return value;
+      }
+      await(key, current);
+      // read what the leader put through the delegate, or compete for the lead if it gave up
     }
-    return value;
   }
 
   @Override
   public Object removeObject(Object key) {
     // despite of its name, this method is called only to release locks
-    releaseLock(key);
+    Flight flight = flights.get(key);
+    if (flight != null && flight.leader == Thread.currentThread() && flights.remove(key, flight)) {
+      lastValues.remove(key);
+      flight.landed.complete(null);
+    }
     return null;
   }
 
+  @Override
+  public void evictObject(Object key) {
+    // removes the entry without releasing a lock, which only the thread holding it may do
+    lastValues.remove(key);
+    delegate.evictObject(key);
+  }
+
   @Override
   public void clear() {
+    lastValues.clear();
     delegate.clear();
   }
 
-  private ReentrantLock getLockForKey(Object key) {
-    return locks.computeIfAbsent(key, k -> new ReentrantLock());
+  /**
+   * @return the number of keys being loaded by a leader
+   * @since 3.5.3
+   */
+  public int getPendingLoadCount() {
+    return flights.size();
   }
 
-  private void acquireLock(Object key) {
-    Lock lock = getLockForKey(key);
-    if (timeout > 0) {
-      try {
-        boolean acquired = lock.tryLock(timeout, TimeUnit.MILLISECONDS);
-        if (!acquired) {
-          throw new CacheException("Couldn't get a lock in " + timeout + " for the key " +  key + " at the cache " + delegate.getId());
-        }
-      } catch (InterruptedException e) {
-        throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
-      }
-    } else {
-      lock.lock();
+  private void land(Object key, Object value) {
+    Flight flight = flights.get(key);
+    // a value put by any thread satisfies the waiting ones, a null can only come from the leader
+    if (flight != null && (value != null || flight.leader == Thread.currentThread()) && flights.remove(key, flight)) {
+      flight.landed.complete(null);
+    }
+  }
+
+  private Object staleValue(Object key) {
+    if (!staleWhileRevalidate) {
+      return null;
     }
+    removeGarbageCollectedValues();
+    LastValue lastValue = lastValues.get(key);
+    return lastValue == null ? null : lastValue.get();
   }
 
-  private void releaseLock(Object key) {
-    ReentrantLock lock = locks.get(key);
-    if (lock.isHeldByCurrentThread()) {
-      lock.unlock();
+  private void removeGarbageCollectedValues() {
+    LastValue lastValue;
+    while ((lastValue = (LastValue) queueOfGarbageCollectedValues.poll()) != null) {
+      lastValues.remove(lastValue.key, lastValue);
+    }
+  }
+
+  private void await(Object key, Flight flight) {
+    try {
+      if (timeout > 0) {
+        flight.landed.get(timeout, TimeUnit.MILLISECONDS);
+      } else {
+        flight.landed.get();
+      }
+    } catch (TimeoutException e) {
+      throw new CacheException("Couldn't get a lock in " + timeout + " for the key " +  key + " at the cache " + delegate.getId());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+    } catch (ExecutionException e) {
+      throw new CacheException("Error waiting for the value of key " + key, e.getCause());
     }
   }
 
@@ -119,4 +199,32 @@ public class BlockingCache implements Cache {
   public void setTimeout(long timeout) {
     this.timeout = timeout;
   }
+
+  /**
+   * @since 3.5.3
+   */
+  public boolean isStaleWhileRevalidate() {
+    return staleWhileRevalidate;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void setStaleWhileRevalidate(boolean staleWhileRevalidate) {
+    this.staleWhileRevalidate = staleWhileRevalidate;
+  }
+
+  private static final class Flight {
+    private final Thread leader = Thread.currentThread();
+    private final CompletableFuture<Void> landed = new CompletableFuture<>();
+  }
+
+  private static final class LastValue extends SoftReference<Object> {
+    private final Object key;
+
+    LastValue(Object key, Object value, ReferenceQueue<Object> garbageCollectionQueue) {
+      super(value, garbageCollectionQueue);
+      this.key = key;
+    }
+  }
 }
@@ -0,0 +1,168 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheMetrics;
+import org.apache.ibatis.cache.ThreadSafeCache;
+
+/**
+ * Per entry expiration decorator.
+ * <p>
+ * Unlike {@link ScheduledCache}, which clears the whole cache at once, every entry expires on its own
+ * after {@code timeToLive} milliseconds. Each lifetime is spread by a random {@code jitter} so that entries
+ * cached together do not all expire together. When {@code refreshAhead} is set, the first request made in
+ * the last part of a lifetime misses, so that its caller reloads the entry while other callers keep being
+ * served the cached value.
+ *
+ * @since 3.5.3
+ */
+public class ExpiringCache implements ThreadSafeCache {
+
+  private final Cache delegate;
+  private long timeToLive;
+  private double jitter;
+  private double refreshAhead;
+  private CacheMetrics metrics;
+
+  public ExpiringCache(Cache delegate) {
+    this.delegate = delegate;
+    this.timeToLive = 60 * 60 * 1000; // 1 hour
+  }
+
+  public void setTimeToLive(long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  /**
+   * @param jitter the fraction of the time to live, between 0 and 1, by which each lifetime may be shortened or extended
+   */
+  public void setJitter(double jitter) {
+    if (jitter < 0 || jitter >= 1) {
+      throw new IllegalArgumentException("Jitter must be between 0 (inclusive) and 1 (exclusive) but was " + jitter);
+    }
+    this.jitter = jitter;
+  }
+
+  /**
+   * @param refreshAhead the fraction of the lifetime, between 0 and 1, after which an entry is reloaded ahead of its expiration.
+   *     0 disables refresh ahead.
+   */
+  public void setRefreshAhead(double refreshAhead) {
+    if (refreshAhead < 0 || refreshAhead >= 1) {
+      throw new IllegalArgumentException("Refresh ahead must be between 0 (inclusive) and 1 (exclusive) but was " + refreshAhead);
+    }
+    this.refreshAhead = refreshAhead;
+  }
+
+  /**
+   * @param metrics receives the evictions of this cache
+   * @since 3.5.3
+   */
+  public void setCacheMetrics(CacheMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    if (value == null) {
+      delegate.putObject(key, null);
+      return;
+    }
+    long now = System.currentTimeMillis();
+    long lifetime = timeToLive;
+    if (jitter > 0) {
+      lifetime += (long) (timeToLive * jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1));
+    }
+    long refreshAt = refreshAhead > 0 ? now + (long) (lifetime * refreshAhead) : Long.MAX_VALUE;
+    delegate.putObject(key, new Entry(value, now + lifetime, refreshAt));
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Object object = delegate.getObject(key);
+    if (!(object instanceof Entry)) {
+      return object;
+    }
+    Entry entry = (Entry) object;
+    long now = System.currentTimeMillis();
+    if (now >= entry.expiresAt) {
+      delegate.removeObject(key);
+      if (metrics != null) {
+        metrics.recordEviction();
+      }
+      return null;
+    }
+    if (now >= entry.refreshAt && entry.refreshing.compareAndSet(false, true)) {
+      // let this caller reload the entry
+      return null;
+    }
+    return entry.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Object object = delegate.removeObject(key);
+    return object instanceof Entry ? ((Entry) object).value : object;
+  }
+
+  @Override
+  public void evictObject(Object key) {
+    delegate.evictObject(key);
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+  private static class Entry {
+    private final Object value;
+    private final long expiresAt;
+    private final long refreshAt;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    Entry(Object value, long expiresAt, long refreshAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+      this.refreshAt = refreshAt;
+    }
+  }
+
+}
@@ -19,6 +19,7 @@ import java.util.Deque;
 import java.util.LinkedList;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheMetrics;
 
 /**
  * FIFO (first in, first out) cache decorator.
@@ -30,6 +31,7 @@ public class FifoCache implements Cache {
   private final Cache delegate;
   private final Deque<Object> keyList;
   private int size;
+  private CacheMetrics metrics;
 
   public FifoCache(Cache delegate) {
     this.delegate = delegate;
@@ -51,6 +53,14 @@ public class FifoCache implements Cache {
     this.size = size;
   }
 
+  /**
+   * @param metrics receives the evictions of this cache
+   * @since 3.5.3
+   */
+  public void setCacheMetrics(CacheMetrics metrics) {
+    this.metrics = metrics;
+  }
+
   @Override
   public void putObject(Object key, Object value) {
     cycleKeyList(key);
@@ -67,6 +77,12 @@ public class FifoCache implements Cache {
     return delegate.removeObject(key);
   }
 
+  @Override
+  public void evictObject(Object key) {
+    keyList.remove(key);
+    delegate.evictObject(key);
+  }
+
   @Override
   public void clear() {
     delegate.clear();
@@ -78,6 +94,9 @@ public class FifoCache implements Cache {
     if (keyList.size() > size) {
       Object oldestKey = keyList.removeFirst();
       delegate.removeObject(oldestKey);
+      if (metrics != null) {
+        metrics.recordEviction();
+      }
     }
   }
 
@@ -15,22 +15,40 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheMetrics;
+import org.apache.ibatis.cache.ThreadSafeCache;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
 /**
  * @author Clinton Begin
  */
-public class LoggingCache implements Cache {
+public class LoggingCache implements ThreadSafeCache {
+
+  private static final AtomicIntegerFieldUpdater<LoggingCache> REQUESTS = AtomicIntegerFieldUpdater.newUpdater(LoggingCache.class, "requests");
+  private static final AtomicIntegerFieldUpdater<LoggingCache> HITS = AtomicIntegerFieldUpdater.newUpdater(LoggingCache.class, "hits");
 
   private final Log log;
   private final Cache delegate;
-  protected int requests = 0;
-  protected int hits = 0;
+  private final CacheMetrics metrics;
+  protected volatile int requests = 0;
+  protected volatile int hits = 0;
 
   public LoggingCache(Cache delegate) {
+    this(delegate, null);
+  }
+
+  /**
+   * @param delegate the cache
+   * @param metrics receives the hits, misses, puts and clears of the cache, may be null
+   * @since 3.5.3
+   */
+  public LoggingCache(Cache delegate, CacheMetrics metrics) {
     this.delegate = delegate;
+    this.metrics = metrics;
     this.log = LogFactory.getLog(getId());
   }
 
@@ -47,14 +65,24 @@ public class LoggingCache implements Cache {
   @Override
   public void putObject(Object key, Object object) {
     delegate.putObject(key, object);
+    if (metrics != null && object != null) {
+      metrics.recordPut();
+    }
   }
 
   @Override
   public Object getObject(Object key) {
-    requests++;
+    REQUESTS.incrementAndGet(this);
     final Object value = delegate.getObject(key);
     if (value != null) {
-      hits++;
+      HITS.incrementAndGet(this);
+    }
+    if (metrics != null) {
+      if (value != null) {
+        metrics.recordHit();
+      } else {
+        metrics.recordMiss();
+      }
     }
     if (log.isDebugEnabled()) {
       log.debug("Cache Hit Ratio [" + getId() + "]: " + getHitRatio());
@@ -67,9 +95,17 @@ public class LoggingCache implements Cache {
     return delegate.removeObject(key);
   }
 
+  @Override
+  public void evictObject(Object key) {
+    delegate.evictObject(key);
+  }
+
   @Override
   public void clear() {
     delegate.clear();
+    if (metrics != null) {
+      metrics.recordClear();
+    }
   }
 
   @Override
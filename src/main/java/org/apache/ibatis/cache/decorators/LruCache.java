@@ -19,6 +19,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheMetrics;
 
 /**
  * Lru (least recently used) cache decorator.
@@ -30,6 +31,7 @@ public class LruCache implements Cache {
   private final Cache delegate;
   private Map<Object, Object> keyMap;
   private Object eldestKey;
+  private CacheMetrics metrics;
 
   public LruCache(Cache delegate) {
     this.delegate = delegate;
@@ -61,6 +63,14 @@ public class LruCache implements Cache {
     };
   }
 
+  /**
+   * @param metrics receives the evictions of this cache
+   * @since 3.5.3
+   */
+  public void setCacheMetrics(CacheMetrics metrics) {
+    this.metrics = metrics;
+  }
+
   @Override
   public void putObject(Object key, Object value) {
     delegate.putObject(key, value);
@@ -78,6 +88,12 @@ public class LruCache implements Cache {
     return delegate.removeObject(key);
   }
 
+  @Override
+  public void evictObject(Object key) {
+    keyMap.remove(key);
+    delegate.evictObject(key);
+  }
+
   @Override
   public void clear() {
     delegate.clear();
@@ -89,6 +105,9 @@ public class LruCache implements Cache {
     if (eldestKey != null) {
       delegate.removeObject(eldestKey);
       eldestKey = null;
+      if (metrics != null) {
+        metrics.recordEviction();
+      }
     }
   }
 
@@ -16,15 +16,16 @@
 package org.apache.ibatis.cache.decorators;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.ThreadSafeCache;
 
 /**
  * @author Clinton Begin
  */
-public class ScheduledCache implements Cache {
+public class ScheduledCache implements ThreadSafeCache {
 
   private final Cache delegate;
   protected long clearInterval;
-  protected long lastClear;
+  protected volatile long lastClear;
 
   public ScheduledCache(Cache delegate) {
     this.delegate = delegate;
@@ -64,6 +65,12 @@ public class ScheduledCache implements Cache {
     return delegate.removeObject(key);
   }
 
+  @Override
+  public void evictObject(Object key) {
+    clearWhenStale();
+    delegate.evictObject(key);
+  }
+
   @Override
   public void clear() {
     lastClear = System.currentTimeMillis();
@@ -26,12 +26,13 @@ import java.io.Serializable;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.ThreadSafeCache;
 import org.apache.ibatis.io.Resources;
 
 /**
  * @author Clinton Begin
  */
-public class SerializedCache implements Cache {
+public class SerializedCache implements ThreadSafeCache {
 
   private final Cache delegate;
 
@@ -69,6 +70,11 @@ public class SerializedCache implements Cache {
     return delegate.removeObject(key);
   }
 
+  @Override
+  public void evictObject(Object key) {
+    delegate.evictObject(key);
+  }
+
   @Override
   public void clear() {
     delegate.clear();
@@ -91,6 +91,12 @@ public class SoftCache implements Cache {
     return delegate.removeObject(key);
   }
 
+  @Override
+  public void evictObject(Object key) {
+    removeGarbageCollectedItems();
+    delegate.evictObject(key);
+  }
+
   @Override
   public void clear() {
     synchronized (hardLinksToAvoidGarbageCollection) {
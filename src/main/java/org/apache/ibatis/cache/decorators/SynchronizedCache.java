@@ -16,11 +16,12 @@
 package org.apache.ibatis.cache.decorators;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.ThreadSafeCache;
 
 /**
  * @author Clinton Begin
  */
-public class SynchronizedCache implements Cache {
+public class SynchronizedCache implements ThreadSafeCache {
 
   private final Cache delegate;
 
@@ -53,6 +54,11 @@ public class SynchronizedCache implements Cache {
     return delegate.removeObject(key);
   }
 
+  @Override
+  public synchronized void evictObject(Object key) {
+    delegate.evictObject(key);
+  }
+
   @Override
   public synchronized void clear() {
     delegate.clear();
@@ -0,0 +1,243 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheMetrics;
+
+/**
+ * W-TinyLFU (windowed tiny least frequently used) cache decorator.
+ * <p>
+ * New keys enter a small LRU admission window. A key evicted from the window only moves to the main
+ * region if it has been requested more often than the key the main region would evict, so that a single
+ * sweep over many keys cannot flush the working set. The main region is a segmented LRU where keys that
+ * are hit again are promoted from the probation to the protected segment. Request frequencies are kept in
+ * a count-min sketch of 4-bit counters, which are halved periodically so that old popularity fades.
+ *
+ * @since 3.5.3
+ */
+public class TinyLfuCache implements Cache {
+
+  private final Cache delegate;
+  private final FrequencySketch sketch = new FrequencySketch();
+  private Map<Object, Object> window;
+  private Map<Object, Object> probation;
+  private Map<Object, Object> protectedKeys;
+  private int maximumWindowSize;
+  private int maximumMainSize;
+  private int maximumProtectedSize;
+  private CacheMetrics metrics;
+
+  public TinyLfuCache(Cache delegate) {
+    this.delegate = delegate;
+    setSize(1024);
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  public void setSize(final int size) {
+    this.maximumWindowSize = Math.max(1, size / 100);
+    this.maximumMainSize = Math.max(0, size - maximumWindowSize);
+    this.maximumProtectedSize = maximumMainSize * 4 / 5;
+    this.window = new LinkedHashMap<>(16, .75F, true);
+    this.probation = new LinkedHashMap<>(16, .75F, true);
+    this.protectedKeys = new LinkedHashMap<>(16, .75F, true);
+    sketch.ensureCapacity(size);
+  }
+
+  /**
+   * @param metrics receives the evictions of this cache
+   * @since 3.5.3
+   */
+  public void setCacheMetrics(CacheMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    delegate.putObject(key, value);
+    if (!touch(key)) {
+      window.put(key, key);
+      evict();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    sketch.increment(key);
+    touch(key);
+    return delegate.getObject(key);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public void evictObject(Object key) {
+    if (window.remove(key) == null && probation.remove(key) == null) {
+      protectedKeys.remove(key);
+    }
+    delegate.evictObject(key);
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+    window.clear();
+    probation.clear();
+    protectedKeys.clear();
+  }
+
+  private boolean touch(Object key) {
+    if (window.get(key) != null || protectedKeys.get(key) != null) {
+      return true;
+    }
+    if (probation.remove(key) != null) {
+      protectedKeys.put(key, key);
+      if (protectedKeys.size() > maximumProtectedSize) {
+        Object demoted = removeEldest(protectedKeys);
+        probation.put(demoted, demoted);
+      }
+      return true;
+    }
+    return false;
+  }
+
+  private void evict() {
+    if (window.size() <= maximumWindowSize) {
+      return;
+    }
+    Object candidate = removeEldest(window);
+    if (probation.size() + protectedKeys.size() < maximumMainSize) {
+      probation.put(candidate, candidate);
+      return;
+    }
+    Map<Object, Object> victimSegment = probation.isEmpty() ? protectedKeys : probation;
+    Object victim = victimSegment.isEmpty() ? null : victimSegment.keySet().iterator().next();
+    if (victim != null && sketch.frequency(candidate) > sketch.frequency(victim)) {
+      victimSegment.remove(victim);
+      delegate.removeObject(victim);
+      probation.put(candidate, candidate);
+    } else {
+      delegate.removeObject(candidate);
+    }
+    if (metrics != null) {
+      metrics.recordEviction();
+    }
+  }
+
+  private static Object removeEldest(Map<Object, Object> segment) {
+    Iterator<Object> iterator = segment.keySet().iterator();
+    Object eldest = iterator.next();
+    iterator.remove();
+    return eldest;
+  }
+
+  /**
+   * A count-min sketch with four 4-bit counters per key, sixteen of them packed in each long.
+   */
+  private static class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int additions;
+
+    void ensureCapacity(int maximumSize) {
+      int capacity = Integer.highestOneBit(Math.max(maximumSize, 8) - 1) << 1;
+      table = new long[capacity];
+      tableMask = capacity - 1;
+      sampleSize = 10 * Math.max(maximumSize, 1);
+      additions = 0;
+    }
+
+    int frequency(Object key) {
+      int hash = spread(key.hashCode());
+      int start = (hash & 3) << 2;
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < 4; i++) {
+        int offset = (start + i) << 2;
+        int count = (int) ((table[indexOf(hash, i)] >>> offset) & 0xfL);
+        frequency = Math.min(frequency, count);
+      }
+      return frequency;
+    }
+
+    void increment(Object key) {
+      int hash = spread(key.hashCode());
+      int start = (hash & 3) << 2;
+      boolean added = false;
+      for (int i = 0; i < 4; i++) {
+        added |= incrementAt(indexOf(hash, i), start + i);
+      }
+      if (added && ++additions == sampleSize) {
+        reset();
+      }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+      int offset = counter << 2;
+      long mask = 0xfL << offset;
+      if ((table[index] & mask) != mask) {
+        table[index] += 1L << offset;
+        return true;
+      }
+      return false;
+    }
+
+    // halves every counter, so that the sketch follows changes in popularity
+    private void reset() {
+      int odd = 0;
+      for (int i = 0; i < table.length; i++) {
+        odd += Long.bitCount(table[i] & ONE_MASK);
+        table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      additions = (additions >>> 1) - (odd >>> 2);
+    }
+
+    private int indexOf(int hash, int depth) {
+      long h = (hash + SEEDS[depth]) * SEEDS[depth];
+      h += h >>> 32;
+      return (int) h & tableMask;
+    }
+
+    private static int spread(int x) {
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      return (x >>> 16) ^ x;
+    }
+  }
+
+}
@@ -15,12 +15,16 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.TableCacheIndex;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
@@ -43,12 +47,25 @@ public class TransactionalCache implements Cache {
   private boolean clearOnCommit;
   private final Map<Object, Object> entriesToAddOnCommit;
   private final Set<Object> entriesMissedInCache;
+  private final TableCacheIndex tableCacheIndex;
+  private final Map<Object, Collection<String>> tablesOfEntriesToAddOnCommit;
 
   public TransactionalCache(Cache delegate) {
+    this(delegate, null);
+  }
+
+  /**
+   * @param delegate the cache
+   * @param tableCacheIndex the index entries are registered in on commit, or null
+   * @since 3.5.3
+   */
+  public TransactionalCache(Cache delegate, TableCacheIndex tableCacheIndex) {
     this.delegate = delegate;
     this.clearOnCommit = false;
     this.entriesToAddOnCommit = new HashMap<>();
     this.entriesMissedInCache = new HashSet<>();
+    this.tableCacheIndex = tableCacheIndex;
+    this.tablesOfEntriesToAddOnCommit = new HashMap<>();
   }
 
   @Override
@@ -78,7 +95,37 @@ public class TransactionalCache implements Cache {
 
   @Override
   public void putObject(Object key, Object object) {
+    putObject(key, object, Collections.emptySet());
+  }
+
+  /**
+   * @param key the key
+   * @param object the value
+   * @param tables the tables the value was read from, empty if unknown
+   * @since 3.5.3
+   */
+  public void putObject(Object key, Object object, Collection<String> tables) {
     entriesToAddOnCommit.put(key, object);
+    tablesOfEntriesToAddOnCommit.put(key, tables);
+  }
+
+  /**
+   * Discards the pending entries read from any of the given tables.
+   *
+   * @param tables the tables written, empty or containing {@link TableCacheIndex#ANY_TABLE} if unknown
+   * @since 3.5.3
+   */
+  public void invalidate(Collection<String> tables) {
+    boolean anyTable = tables.isEmpty() || tables.contains(TableCacheIndex.ANY_TABLE);
+    Iterator<Map.Entry<Object, Collection<String>>> iterator = tablesOfEntriesToAddOnCommit.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Object, Collection<String>> entry = iterator.next();
+      Collection<String> entryTables = entry.getValue();
+      if (anyTable || entryTables.isEmpty() || !Collections.disjoint(entryTables, tables)) {
+        entriesToAddOnCommit.remove(entry.getKey());
+        iterator.remove();
+      }
+    }
   }
 
   @Override
@@ -90,11 +137,15 @@ public class TransactionalCache implements Cache {
   public void clear() {
     clearOnCommit = true;
     entriesToAddOnCommit.clear();
+    tablesOfEntriesToAddOnCommit.clear();
   }
 
   public void commit() {
     if (clearOnCommit) {
       delegate.clear();
+      if (tableCacheIndex != null) {
+        tableCacheIndex.clear(delegate);
+      }
     }
     flushPendingEntries();
     reset();
@@ -109,11 +160,15 @@ public class TransactionalCache implements Cache {
     clearOnCommit = false;
     entriesToAddOnCommit.clear();
     entriesMissedInCache.clear();
+    tablesOfEntriesToAddOnCommit.clear();
   }
 
   private void flushPendingEntries() {
     for (Map.Entry<Object, Object> entry : entriesToAddOnCommit.entrySet()) {
       delegate.putObject(entry.getKey(), entry.getValue());
+      if (tableCacheIndex != null) {
+        tableCacheIndex.register(delegate, entry.getKey(), tablesOfEntriesToAddOnCommit.get(entry.getKey()));
+      }
     }
     for (Object entry : entriesMissedInCache) {
       if (!entriesToAddOnCommit.containsKey(entry)) {
@@ -87,6 +87,12 @@ public class WeakCache implements Cache {
     return delegate.removeObject(key);
   }
 
+  @Override
+  public void evictObject(Object key) {
+    removeGarbageCollectedItems();
+    delegate.evictObject(key);
+  }
+
   @Override
   public void clear() {
     hardLinksToAvoidGarbageCollection.clear();
@@ -0,0 +1,145 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheMetrics;
+
+/**
+ * Weight bounded LRU cache decorator.
+ * <p>
+ * Instead of counting entries, the cache adds up their weights and removes the least recently used
+ * ones once the total exceeds {@code maximumWeight}. A serialized copy (see {@link SerializedCache})
+ * weighs its size in bytes, a list weighs its number of rows and any other value weighs 1.
+ *
+ * @since 3.5.3
+ */
+public class WeightedCache implements Cache {
+
+  private final Cache delegate;
+  private final Map<Object, Integer> weights;
+  private long maximumWeight;
+  private long totalWeight;
+  private CacheMetrics metrics;
+
+  public WeightedCache(Cache delegate) {
+    this.delegate = delegate;
+    this.weights = new LinkedHashMap<>(16, .75F, true);
+    this.maximumWeight = 1024 * 1024;
+  }
+
+  public void setMaximumWeight(long maximumWeight) {
+    this.maximumWeight = maximumWeight;
+  }
+
+  /**
+   * @param metrics receives the evictions of this cache
+   * @since 3.5.3
+   */
+  public void setCacheMetrics(CacheMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  public long getTotalWeight() {
+    return totalWeight;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    delegate.putObject(key, value);
+    Integer previous = weights.put(key, weigh(value));
+    if (previous != null) {
+      totalWeight -= previous;
+    }
+    totalWeight += weights.get(key);
+    Iterator<Map.Entry<Object, Integer>> iterator = weights.entrySet().iterator();
+    while (totalWeight > maximumWeight && iterator.hasNext()) {
+      Map.Entry<Object, Integer> eldest = iterator.next();
+      if (eldest.getKey().equals(key)) {
+        // keep the entry just added even if it weighs more than the maximum on its own
+        continue;
+      }
+      iterator.remove();
+      totalWeight -= eldest.getValue();
+      delegate.removeObject(eldest.getKey());
+      if (metrics != null) {
+        metrics.recordEviction();
+      }
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Object value = delegate.getObject(key);
+    Integer weight = weights.get(key); // touch
+    if (value == null && weight != null) {
+      // removed by another decorator
+      weights.remove(key);
+      totalWeight -= weight;
+    }
+    return value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Integer weight = weights.remove(key);
+    if (weight != null) {
+      totalWeight -= weight;
+    }
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public void evictObject(Object key) {
+    Integer weight = weights.remove(key);
+    if (weight != null) {
+      totalWeight -= weight;
+    }
+    delegate.evictObject(key);
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+    weights.clear();
+    totalWeight = 0;
+  }
+
+  private int weigh(Object value) {
+    if (value instanceof byte[]) {
+      return ((byte[]) value).length;
+    } else if (value instanceof Collection) {
+      return Math.max(1, ((Collection<?>) value).size());
+    }
+    return 1;
+  }
+
+}
@@ -0,0 +1,239 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheMetrics;
+
+/**
+ * {@link CacheMetrics} that keeps counters and a load time histogram in memory, without locking.
+ * <p>
+ * The histogram has one bucket per power of two microseconds, so percentiles are upper bounds that are at most
+ * twice the real value.
+ *
+ * @since 3.5.3
+ */
+public class CacheStatistics implements CacheMetrics, CacheStatisticsMXBean {
+
+  private static final int BUCKETS = 40;
+
+  private final String cacheId;
+  private volatile Cache cache;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder puts = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder clears = new LongAdder();
+  private final LongAdder rejections = new LongAdder();
+  private final LongAdder loadTime = new LongAdder();
+  private final LongAccumulator maximumLoadTime = new LongAccumulator(Math::max, 0);
+  private final LongAdder[] loadTimeBuckets = new LongAdder[BUCKETS];
+
+  public CacheStatistics(String cacheId) {
+    this.cacheId = cacheId;
+    for (int i = 0; i < BUCKETS; i++) {
+      loadTimeBuckets[i] = new LongAdder();
+    }
+  }
+
+  @Override
+  public void setCache(Cache cache) {
+    this.cache = cache;
+  }
+
+  @Override
+  public void recordHit() {
+    hits.increment();
+  }
+
+  @Override
+  public void recordMiss() {
+    misses.increment();
+  }
+
+  @Override
+  public void recordPut() {
+    puts.increment();
+  }
+
+  @Override
+  public void recordEviction() {
+    evictions.increment();
+  }
+
+  @Override
+  public void recordClear() {
+    clears.increment();
+  }
+
+  @Override
+  public void recordRejection() {
+    rejections.increment();
+  }
+
+  @Override
+  public void recordLoad(long nanos) {
+    long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0));
+    loadTime.add(micros);
+    maximumLoadTime.accumulate(micros);
+    loadTimeBuckets[bucketOf(micros)].increment();
+  }
+
+  @Override
+  public String getCacheId() {
+    return cacheId;
+  }
+
+  @Override
+  public int getSize() {
+    Cache current = cache;
+    return current == null ? 0 : current.getSize();
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  @Override
+  public double getHitRatio() {
+    long hitCount = hits.sum();
+    long requestCount = hitCount + misses.sum();
+    return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+  }
+
+  @Override
+  public long getPutCount() {
+    return puts.sum();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  @Override
+  public long getClearCount() {
+    return clears.sum();
+  }
+
+  @Override
+  public long getRejectionCount() {
+    return rejections.sum();
+  }
+
+  @Override
+  public long getLoadCount() {
+    long count = 0;
+    for (LongAdder bucket : loadTimeBuckets) {
+      count += bucket.sum();
+    }
+    return count;
+  }
+
+  @Override
+  public double getAverageLoadTime() {
+    long count = getLoadCount();
+    return count == 0 ? 0 : (double) loadTime.sum() / count;
+  }
+
+  @Override
+  public long getLoadTime50thPercentile() {
+    return getLoadTimePercentile(0.5);
+  }
+
+  @Override
+  public long getLoadTime95thPercentile() {
+    return getLoadTimePercentile(0.95);
+  }
+
+  @Override
+  public long getLoadTime99thPercentile() {
+    return getLoadTimePercentile(0.99);
+  }
+
+  @Override
+  public long getMaximumLoadTime() {
+    return maximumLoadTime.get();
+  }
+
+  /**
+   * @param percentile between 0 and 1
+   * @return the upper bound, in microseconds, of the load time of the given fraction of the loads
+   */
+  public long getLoadTimePercentile(double percentile) {
+    long[] counts = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = loadTimeBuckets[i].sum();
+      total += counts[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(percentile * total);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(upperBoundOf(i), getMaximumLoadTime());
+      }
+    }
+    return getMaximumLoadTime();
+  }
+
+  @Override
+  public void reset() {
+    hits.reset();
+    misses.reset();
+    puts.reset();
+    evictions.reset();
+    clears.reset();
+    rejections.reset();
+    loadTime.reset();
+    maximumLoadTime.reset();
+    for (LongAdder bucket : loadTimeBuckets) {
+      bucket.reset();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "CacheStatistics [" + cacheId + "] size=" + getSize() + ", hits=" + getHitCount() + ", misses="
+        + getMissCount() + ", puts=" + getPutCount() + ", evictions=" + getEvictionCount() + ", clears="
+        + getClearCount() + ", rejections=" + getRejectionCount() + ", loads=" + getLoadCount() + ", averageLoadTime=" + getAverageLoadTime() + "us";
+  }
+
+  private static int bucketOf(long micros) {
+    // bucket i holds the times up to 2^i microseconds
+    int bucket = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+    return Math.min(bucket, BUCKETS - 1);
+  }
+
+  private static long upperBoundOf(int bucket) {
+    return 1L << bucket;
+  }
+
+}
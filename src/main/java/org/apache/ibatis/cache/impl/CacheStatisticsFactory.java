@@ -0,0 +1,52 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.cache.CacheMetrics;
+import org.apache.ibatis.cache.CacheMetricsFactory;
+
+/**
+ * Gives each cache a {@link CacheStatistics} and keeps them so that they can be read by the application.
+ *
+ * @since 3.5.3
+ */
+public class CacheStatisticsFactory implements CacheMetricsFactory {
+
+  private final Map<String, CacheStatistics> statistics = new ConcurrentHashMap<>();
+
+  @Override
+  public CacheMetrics create(String cacheId) {
+    return statistics.computeIfAbsent(cacheId, CacheStatistics::new);
+  }
+
+  /**
+   * @param cacheId the id of a cache
+   * @return its statistics, or null if it has none
+   */
+  public CacheStatistics getStatistics(String cacheId) {
+    return statistics.get(cacheId);
+  }
+
+  public Collection<CacheStatistics> getAllStatistics() {
+    return Collections.unmodifiableCollection(statistics.values());
+  }
+
+}
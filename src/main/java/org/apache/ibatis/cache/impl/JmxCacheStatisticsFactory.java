@@ -0,0 +1,61 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheMetrics;
+
+/**
+ * Registers the {@link CacheStatistics} of each cache in the platform MBean server, under the name
+ * {@code org.apache.ibatis:type=CacheStatistics,name="<cache id>"}. A bean left by a previous configuration
+ * with the same name is replaced.
+ *
+ * @since 3.5.3
+ */
+public class JmxCacheStatisticsFactory extends CacheStatisticsFactory {
+
+  public static final String DOMAIN = "org.apache.ibatis";
+
+  @Override
+  public CacheMetrics create(String cacheId) {
+    CacheMetrics statistics = super.create(cacheId);
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = getObjectName(cacheId);
+      try {
+        server.registerMBean(statistics, name);
+      } catch (InstanceAlreadyExistsException e) {
+        server.unregisterMBean(name);
+        server.registerMBean(statistics, name);
+      }
+    } catch (Exception e) {
+      throw new CacheException("Error registering the statistics of cache " + cacheId + " in JMX.  Cause: " + e, e);
+    }
+    return statistics;
+  }
+
+  public static ObjectName getObjectName(String cacheId) throws MalformedObjectNameException {
+    return new ObjectName(DOMAIN + ":type=CacheStatistics,name=" + ObjectName.quote(cacheId));
+  }
+
+}
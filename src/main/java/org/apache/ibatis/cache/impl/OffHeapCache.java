@@ -0,0 +1,419 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheMetrics;
+import org.apache.ibatis.cache.CacheCodec;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.ThreadSafeCache;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * A cache that keeps its values outside of the Java heap, in direct {@link ByteBuffer}s.
+ * <p>
+ * Values are encoded by a {@link CacheCodec}, {@link SerializationCacheCodec} by default, so every hit returns
+ * a copy just like a read/write cache. Keys are spread over segments that are locked independently. Each segment
+ * owns a fixed number of pages that are written one after the other; when the last page is full, the oldest page
+ * is emptied and reused, so the memory used never exceeds {@code capacity} and the oldest entries are evicted
+ * first. Values larger than a page ({@code capacity / segments / 8}) are not cached: the entry of their key, if any,
+ * is removed since it is outdated, the rejection is counted and reported to the {@link CacheMetrics}, and the first
+ * one is logged.
+ * <p>
+ * Since it evicts and copies by itself, this cache is used like a custom cache:
+ * <pre>
+ * &lt;cache type="OFF_HEAP"&gt;
+ *   &lt;property name="capacity" value="268435456"/&gt;
+ * &lt;/cache&gt;
+ * </pre>
+ *
+ * @since 3.5.3
+ */
+public class OffHeapCache implements ThreadSafeCache, InitializingObject {
+
+  private static final Log log = LogFactory.getLog(OffHeapCache.class);
+  private static final int PAGES_PER_SEGMENT = 8;
+
+  private final String id;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder rejections = new LongAdder();
+  private final AtomicBoolean rejectionLogged = new AtomicBoolean();
+  private long capacity = 64L * 1024 * 1024;
+  private int segmentCount = 16;
+  private CacheCodec codec = new SerializationCacheCodec();
+  private volatile Segment[] segments;
+  private CacheMetrics metrics;
+
+  public OffHeapCache(String id) {
+    this.id = id;
+  }
+
+  /**
+   * @param capacity the maximum number of bytes stored outside of the heap
+   */
+  public void setCapacity(long capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * @param segmentCount the number of independently locked segments
+   */
+  public void setSegments(int segmentCount) {
+    this.segmentCount = segmentCount;
+  }
+
+  /**
+   * @param codecType the fully qualified class name of a {@link CacheCodec}, type aliases are not resolved
+   */
+  public void setCodec(String codecType) {
+    try {
+      this.codec = (CacheCodec) Resources.classForName(codecType).newInstance();
+    } catch (Exception e) {
+      throw new CacheException("Could not instantiate cache codec (" + codecType + "). Cause: " + e, e);
+    }
+  }
+
+  public void setCacheCodec(CacheCodec codec) {
+    this.codec = codec;
+  }
+
+  /**
+   * @param metrics receives the evictions and rejections of this cache
+   * @since 3.5.3
+   */
+  public void setCacheMetrics(CacheMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void initialize() {
+    if (segmentCount <= 0) {
+      throw new CacheException("The number of segments of cache '" + id + "' must be positive.");
+    }
+    long pageSize = capacity / segmentCount / PAGES_PER_SEGMENT;
+    if (pageSize <= 0 || pageSize > Integer.MAX_VALUE) {
+      throw new CacheException("Invalid capacity " + capacity + " for cache '" + id + "'.");
+    }
+    Segment[] newSegments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      newSegments[i] = new Segment((int) pageSize);
+    }
+    segments = newSegments;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    int size = 0;
+    for (Segment segment : getSegments()) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    Segment segment = segmentFor(key);
+    if (value == null) {
+      segment.remove(key);
+    } else {
+      byte[] bytes = codec.encode(value);
+      int evicted = segment.put(key, bytes);
+      if (evicted < 0) {
+        reject(bytes.length, segment.pageSize);
+      } else if (metrics != null) {
+        for (int i = 0; i < evicted; i++) {
+          metrics.recordEviction();
+        }
+      }
+    }
+  }
+
+  private void reject(int length, int pageSize) {
+    rejections.increment();
+    if (metrics != null) {
+      metrics.recordRejection();
+    }
+    if (rejectionLogged.compareAndSet(false, true)) {
+      log.warn("Cache '" + id + "' cannot hold a value of " + length + " bytes, larger than its pages of " + pageSize
+          + " bytes (capacity / segments / " + PAGES_PER_SEGMENT + "). Such values are not cached; "
+          + "further rejections are only counted.");
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    byte[] bytes = segmentFor(key).get(key);
+    if (bytes == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return codec.decode(bytes);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    byte[] bytes = segmentFor(key).remove(key);
+    return bytes == null ? null : codec.decode(bytes);
+  }
+
+  @Override
+  public void clear() {
+    for (Segment segment : getSegments()) {
+      segment.clear();
+    }
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of values that were not cached because they were larger than a page
+   */
+  public long getRejectionCount() {
+    return rejections.sum();
+  }
+
+  public long getEvictionCount() {
+    long evictions = 0;
+    for (Segment segment : getSegments()) {
+      evictions += segment.evictions();
+    }
+    return evictions;
+  }
+
+  /**
+   * @return the number of bytes used by the values currently cached
+   */
+  public long getMemoryUsed() {
+    long used = 0;
+    for (Segment segment : getSegments()) {
+      used += segment.usedBytes();
+    }
+    return used;
+  }
+
+  /**
+   * @return the number of bytes used by the values currently cached in each segment
+   */
+  public long[] getSegmentMemoryUsed() {
+    Segment[] current = getSegments();
+    long[] used = new long[current.length];
+    for (int i = 0; i < current.length; i++) {
+      used[i] = current[i].usedBytes();
+    }
+    return used;
+  }
+
+  private Segment segmentFor(Object key) {
+    Segment[] current = getSegments();
+    int hash = key.hashCode();
+    hash ^= hash >>> 16;
+    return current[Math.floorMod(hash, current.length)];
+  }
+
+  private Segment[] getSegments() {
+    Segment[] current = segments;
+    if (current == null) {
+      synchronized (this) {
+        if (segments == null) {
+          initialize();
+        }
+        current = segments;
+      }
+    }
+    return current;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  private static class Slot {
+    private final int page;
+    private final int offset;
+    private final int length;
+
+    Slot(int page, int offset, int length) {
+      this.page = page;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  private static class Segment {
+    private final int pageSize;
+    private final ByteBuffer[] pages = new ByteBuffer[PAGES_PER_SEGMENT];
+    private final List<List<Object>> pageKeys = new ArrayList<>(PAGES_PER_SEGMENT);
+    private final Map<Object, Slot> slots = new HashMap<>();
+    private int currentPage;
+    private long usedBytes;
+    private long evictions;
+
+    Segment(int pageSize) {
+      this.pageSize = pageSize;
+      for (int i = 0; i < PAGES_PER_SEGMENT; i++) {
+        pageKeys.add(new ArrayList<>());
+      }
+    }
+
+    synchronized int size() {
+      return slots.size();
+    }
+
+    synchronized long usedBytes() {
+      return usedBytes;
+    }
+
+    synchronized long evictions() {
+      return evictions;
+    }
+
+    synchronized byte[] get(Object key) {
+      Slot slot = slots.get(key);
+      return slot == null ? null : read(slot);
+    }
+
+    /**
+     * @return the number of entries evicted to make room, or -1 if the value is larger than a page
+     */
+    synchronized int put(Object key, byte[] bytes) {
+      release(slots.remove(key));
+      if (bytes.length > pageSize) {
+        return -1;
+      }
+      long evictionsBefore = evictions;
+      ByteBuffer page = pageFor(bytes.length);
+      Slot slot = new Slot(currentPage, page.position(), bytes.length);
+      page.put(bytes);
+      slots.put(key, slot);
+      pageKeys.get(currentPage).add(key);
+      usedBytes += bytes.length;
+      return (int) (evictions - evictionsBefore);
+    }
+
+    synchronized byte[] remove(Object key) {
+      Slot slot = slots.remove(key);
+      if (slot == null) {
+        return null;
+      }
+      release(slot);
+      return read(slot);
+    }
+
+    synchronized void clear() {
+      slots.clear();
+      for (int i = 0; i < PAGES_PER_SEGMENT; i++) {
+        pageKeys.get(i).clear();
+        if (pages[i] != null) {
+          pages[i].clear();
+        }
+      }
+      currentPage = 0;
+      usedBytes = 0;
+    }
+
+    private byte[] read(Slot slot) {
+      byte[] bytes = new byte[slot.length];
+      ByteBuffer view = pages[slot.page].duplicate();
+      view.position(slot.offset);
+      view.get(bytes);
+      return bytes;
+    }
+
+    private void release(Slot slot) {
+      if (slot != null) {
+        usedBytes -= slot.length;
+      }
+    }
+
+    private ByteBuffer pageFor(int length) {
+      ByteBuffer page = pages[currentPage];
+      if (page == null) {
+        page = ByteBuffer.allocateDirect(pageSize);
+        pages[currentPage] = page;
+      }
+      if (page.remaining() >= length) {
+        return page;
+      }
+      currentPage = (currentPage + 1) % PAGES_PER_SEGMENT;
+      evictPage(currentPage);
+      page = pages[currentPage];
+      if (page == null) {
+        page = ByteBuffer.allocateDirect(pageSize);
+        pages[currentPage] = page;
+      }
+      page.clear();
+      return page;
+    }
+
+    private void evictPage(int page) {
+      List<Object> keys = pageKeys.get(page);
+      for (Object key : keys) {
+        Slot slot = slots.get(key);
+        if (slot != null && slot.page == page) {
+          slots.remove(key);
+          release(slot);
+          evictions++;
+        }
+      }
+      keys.clear();
+    }
+  }
+
+}
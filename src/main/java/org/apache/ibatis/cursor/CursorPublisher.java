@@ -0,0 +1,196 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ibatis.cursor.defaults.DefaultCursor;
+
+/**
+ * Publishes the items of a {@link Cursor} to a single subscriber, following the Reactive Streams rules.
+ * <p>
+ * Items are only fetched as the subscriber requests them, on the thread that calls
+ * {@link Subscription#request(long)}, so no thread is held while the subscriber has no demand. The fetch size of
+ * the underlying result set follows the outstanding demand, up to {@link #MAX_FETCH_SIZE} rows. The cursor is
+ * closed when it is consumed, when it fails, and when the subscription is cancelled.
+ * <p>
+ * The nested interfaces have the same shape as the ones of {@code java.util.concurrent.Flow}, so a publisher can be
+ * exposed as a {@code Flow.Publisher} by a simple delegating adapter on Java 9 and later. As for any cursor, the
+ * session that created it must stay open until the subscription ends.
+ *
+ * @since 3.5.3
+ */
+public class CursorPublisher<T> {
+
+  public static final int MAX_FETCH_SIZE = 1000;
+
+  private final Cursor<T> cursor;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  public CursorPublisher(Cursor<T> cursor) {
+    this.cursor = cursor;
+  }
+
+  public void subscribe(Subscriber<? super T> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException("subscriber");
+    }
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new CursorSubscription<>(null, subscriber));
+      subscriber.onError(new IllegalStateException("A cursor can only be published to one subscriber."));
+      return;
+    }
+    CursorSubscription<T> subscription = new CursorSubscription<>(cursor, subscriber);
+    subscriber.onSubscribe(subscription);
+  }
+
+  public interface Subscriber<T> {
+
+    void onSubscribe(Subscription subscription);
+
+    void onNext(T item);
+
+    void onError(Throwable throwable);
+
+    void onComplete();
+  }
+
+  public interface Subscription {
+
+    void request(long n);
+
+    void cancel();
+  }
+
+  private static class CursorSubscription<T> implements Subscription {
+
+    private final Cursor<T> cursor;
+    private final Subscriber<? super T> subscriber;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile Throwable invalidRequest;
+    private Iterator<T> iterator;
+    private int fetchSize;
+
+    CursorSubscription(Cursor<T> cursor, Subscriber<? super T> subscriber) {
+      this.cursor = cursor;
+      this.subscriber = subscriber;
+      this.cancelled = cursor == null;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException("Requested " + n + " items, but the request must be positive.");
+      } else {
+        requested.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      drain();
+    }
+
+    // calls to the subscriber and to the cursor are serialized by whichever thread enters the loop first
+    private void drain() {
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      do {
+        if (terminate()) {
+          return;
+        }
+        long demand = requested.get();
+        long emitted = 0;
+        try {
+          if (demand > 0) {
+            adjustFetchSize(demand);
+            if (iterator == null) {
+              iterator = cursor.iterator();
+            }
+          }
+          while (emitted < demand) {
+            if (terminate()) {
+              return;
+            }
+            if (!iterator.hasNext()) {
+              cancelled = true;
+              closeCursor();
+              subscriber.onComplete();
+              return;
+            }
+            subscriber.onNext(iterator.next());
+            emitted++;
+          }
+        } catch (RuntimeException e) {
+          cancelled = true;
+          closeCursor();
+          subscriber.onError(e);
+          return;
+        }
+        if (emitted > 0 && demand != Long.MAX_VALUE) {
+          requested.addAndGet(-emitted);
+        }
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private boolean terminate() {
+      if (cancelled) {
+        closeCursor();
+        return true;
+      }
+      Throwable error = invalidRequest;
+      if (error != null) {
+        cancelled = true;
+        closeCursor();
+        subscriber.onError(error);
+        return true;
+      }
+      return false;
+    }
+
+    private void adjustFetchSize(long demand) {
+      if (demand != Long.MAX_VALUE && cursor instanceof DefaultCursor) {
+        int size = (int) Math.min(demand, MAX_FETCH_SIZE);
+        if (size != fetchSize) {
+          ((DefaultCursor<T>) cursor).setFetchSize(size);
+          fetchSize = size;
+        }
+      }
+    }
+
+    private void closeCursor() {
+      if (cursor != null) {
+        try {
+          cursor.close();
+        } catch (IOException ignore) {
+          // nothing to do, the subscription is over anyway
+        }
+      }
+    }
+  }
+
+}
@@ -121,6 +121,23 @@ public class DefaultCursor<T> implements Cursor<T> {
     }
   }
 
+  /**
+   * Gives the driver a hint about the number of rows to fetch per round trip for the rest of the result set.
+   *
+   * @param fetchSize the number of rows
+   * @since 3.5.3
+   */
+  public void setFetchSize(int fetchSize) {
+    if (isClosed()) {
+      return;
+    }
+    try {
+      rsw.getResultSet().setFetchSize(fetchSize);
+    } catch (SQLException e) {
+      // ignore, this is only a hint
+    }
+  }
+
   protected T fetchNextUsingRowBound() {
     T result = fetchNextObjectFromDatabase();
     while (objectWrapperResultHandler.fetched && indexWithRowBound < rowBounds.getOffset()) {
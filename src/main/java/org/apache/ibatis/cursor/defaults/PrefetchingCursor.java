@@ -0,0 +1,223 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import org.apache.ibatis.cursor.Cursor;
+
+/**
+ * A cursor that maps rows ahead of the consumer.
+ * <p>
+ * When its iterator is retrieved, a producer task started on the given executor iterates the underlying cursor and
+ * puts up to {@code prefetchDepth} mapped objects into a bounded queue, so that fetching and mapping rows overlap with
+ * the processing of the previous ones. The underlying cursor is only ever used by the producer. Like the
+ * {@link DefaultCursor}, this implementation is not thread safe for its consumer.
+ * <p>
+ * The producer reads the connection of the session while the consumer runs, so the session must not run any other
+ * statement until the cursor is closed or fully read. Statements opt in with their {@code cursorPrefetchDepth}.
+ *
+ * @since 3.5.3
+ */
+public class PrefetchingCursor<T> implements Cursor<T> {
+
+  private static final Object NULL = new Object();
+  private static final Object END = new Object();
+
+  private final Cursor<T> delegate;
+  private final Executor executor;
+  private final BlockingQueue<Object> queue;
+  private final CountDownLatch produced = new CountDownLatch(1);
+  private final int initialIndex;
+
+  private final PrefetchingIterator iterator = new PrefetchingIterator();
+  private boolean iteratorRetrieved;
+  private boolean started;
+  private boolean consumed;
+  private volatile boolean closed;
+  private int consumedCount;
+
+  public PrefetchingCursor(Cursor<T> delegate, int prefetchDepth, Executor executor) {
+    this.delegate = delegate;
+    this.executor = executor;
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, prefetchDepth));
+    this.initialIndex = delegate.getCurrentIndex();
+  }
+
+  @Override
+  public boolean isOpen() {
+    return started && !closed && !consumed;
+  }
+
+  @Override
+  public boolean isConsumed() {
+    return consumed;
+  }
+
+  @Override
+  public int getCurrentIndex() {
+    return initialIndex + consumedCount;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    if (iteratorRetrieved) {
+      throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+    }
+    if (closed || consumed) {
+      throw new IllegalStateException("A Cursor is already closed.");
+    }
+    iteratorRetrieved = true;
+    started = true;
+    executor.execute(this::produce);
+    return iterator;
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (!started) {
+      closeDelegate();
+      return;
+    }
+    // frees the producer if it is waiting for room, it stops at its next item
+    queue.clear();
+    try {
+      produced.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    queue.clear();
+  }
+
+  private void produce() {
+    try {
+      for (T item : delegate) {
+        if (closed) {
+          return;
+        }
+        queue.put(item == null ? NULL : item);
+      }
+      putUninterruptibly(END);
+    } catch (RuntimeException e) {
+      putUninterruptibly(new Failure(e));
+    } catch (InterruptedException e) {
+      putUninterruptibly(new Failure(new RuntimeException("Interrupted while prefetching cursor rows.", e)));
+      Thread.currentThread().interrupt();
+    } finally {
+      closeDelegate();
+      produced.countDown();
+    }
+  }
+
+  private void putUninterruptibly(Object object) {
+    // the consumer may be waiting for this object, it must not be lost
+    boolean interrupted = Thread.interrupted();
+    try {
+      while (!closed) {
+        try {
+          queue.put(object);
+          return;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void closeDelegate() {
+    try {
+      delegate.close();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
+  private static class Failure {
+
+    private final RuntimeException exception;
+
+    Failure(RuntimeException exception) {
+      this.exception = exception;
+    }
+  }
+
+  protected class PrefetchingIterator implements Iterator<T> {
+
+    /**
+     * The next object taken from the queue, or null if none has been taken yet.
+     */
+    private Object next;
+
+    @Override
+    public boolean hasNext() {
+      if (next == null) {
+        next = take();
+      }
+      return next != END;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Object object = next;
+      next = null;
+      consumedCount++;
+      return object == NULL ? null : (T) object;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Cannot remove element from Cursor");
+    }
+
+    private Object take() {
+      if (closed || consumed) {
+        return END;
+      }
+      Object object;
+      try {
+        object = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting for the next cursor row.", e);
+      }
+      if (object instanceof Failure) {
+        consumed = true;
+        throw ((Failure) object).exception;
+      }
+      if (object == END) {
+        consumed = true;
+      }
+      return object;
+    }
+  }
+}
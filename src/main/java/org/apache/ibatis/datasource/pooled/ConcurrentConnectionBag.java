@@ -0,0 +1,200 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A lock-free container of {@link PooledConnection}s used by {@link PooledDataSource} when
+ * the concurrent bag engine is enabled.
+ * <p>
+ * Connections never leave the bag while they are pooled; borrowing and returning only flip
+ * their state with a CAS. A borrower first looks at the connections recently returned by its
+ * own thread, then scans the shared list, and finally waits on a fair hand-off queue that
+ * returning threads feed directly.
+ */
+class ConcurrentConnectionBag {
+
+  private static final int MAX_THREAD_LOCAL_CONNECTIONS = 16;
+
+  private final CopyOnWriteArrayList<PooledConnection> sharedList = new CopyOnWriteArrayList<>();
+  private final ThreadLocal<List<WeakReference<PooledConnection>>> threadList = ThreadLocal.withInitial(ArrayList::new);
+  private final SynchronousQueue<PooledConnection> handoffQueue = new SynchronousQueue<>(true);
+  private final AtomicInteger waiters = new AtomicInteger();
+  private final AtomicInteger size = new AtomicInteger();
+
+  /**
+   * Tries to borrow an idle connection without waiting.
+   *
+   * @return a connection now in {@link PooledConnection#STATE_IN_USE}, or null if none is idle
+   */
+  PooledConnection borrow() {
+    List<WeakReference<PooledConnection>> list = threadList.get();
+    for (int i = list.size() - 1; i >= 0; i--) {
+      PooledConnection conn = list.remove(i).get();
+      if (conn != null && conn.compareAndSetState(PooledConnection.STATE_NOT_IN_USE, PooledConnection.STATE_IN_USE)) {
+        return conn;
+      }
+    }
+    for (PooledConnection conn : sharedList) {
+      if (conn.compareAndSetState(PooledConnection.STATE_NOT_IN_USE, PooledConnection.STATE_IN_USE)) {
+        return conn;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Waits on the hand-off queue for a connection returned by another thread.
+   *
+   * @param timeout the maximum time to wait in milliseconds
+   * @return a connection now in {@link PooledConnection#STATE_IN_USE}, or null if none arrived in time
+   * @throws InterruptedException if interrupted while waiting
+   */
+  PooledConnection await(long timeout) throws InterruptedException {
+    waiters.incrementAndGet();
+    try {
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+      long remaining = deadline - System.nanoTime();
+      while (remaining > 0) {
+        // a connection may have been returned between the caller's scan and our registration
+        PooledConnection conn = borrow();
+        if (conn != null) {
+          return conn;
+        }
+        conn = handoffQueue.poll(remaining, TimeUnit.NANOSECONDS);
+        if (conn != null && conn.compareAndSetState(PooledConnection.STATE_NOT_IN_USE, PooledConnection.STATE_IN_USE)) {
+          return conn;
+        }
+        remaining = deadline - System.nanoTime();
+      }
+      return null;
+    } finally {
+      waiters.decrementAndGet();
+    }
+  }
+
+  /**
+   * Returns a borrowed connection to the bag, handing it directly to a waiting thread if there is one.
+   *
+   * @param conn the connection to return
+   */
+  void requite(PooledConnection conn) {
+    conn.setState(PooledConnection.STATE_NOT_IN_USE);
+    for (int i = 0; waiters.get() > 0; i++) {
+      if (conn.getState() != PooledConnection.STATE_NOT_IN_USE || handoffQueue.offer(conn)) {
+        return;
+      } else if ((i & 0xff) == 0xff) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+      } else {
+        Thread.yield();
+      }
+    }
+    List<WeakReference<PooledConnection>> list = threadList.get();
+    if (list.size() < MAX_THREAD_LOCAL_CONNECTIONS) {
+      list.add(new WeakReference<>(conn));
+    }
+  }
+
+  /**
+   * Reserves a slot for a new connection if the bag holds fewer than {@code maximum} connections.
+   * Callers must either {@link #add} a connection or {@link #release} the slot afterwards.
+   *
+   * @param maximum the maximum number of connections
+   * @return True if a slot was reserved
+   */
+  boolean reserve(int maximum) {
+    for (;;) {
+      int current = size.get();
+      if (current >= maximum) {
+        return false;
+      }
+      if (size.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Releases a slot obtained with {@link #reserve} that will not be filled.
+   */
+  void release() {
+    size.decrementAndGet();
+  }
+
+  /**
+   * Adds a new connection, already borrowed by the caller, into a slot obtained with {@link #reserve}.
+   *
+   * @param conn the connection to add
+   */
+  void add(PooledConnection conn) {
+    conn.setState(PooledConnection.STATE_IN_USE);
+    sharedList.add(conn);
+  }
+
+  /**
+   * Removes a connection from the bag. The caller must own the connection, either because
+   * it borrowed it or because it won the transition to {@link PooledConnection#STATE_REMOVED}.
+   *
+   * @param conn the connection to remove
+   * @return True if the connection was in the bag
+   */
+  boolean remove(PooledConnection conn) {
+    conn.setState(PooledConnection.STATE_REMOVED);
+    if (sharedList.remove(conn)) {
+      size.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns a snapshot of all connections in the bag, whatever their state.
+   *
+   * @return the connections
+   */
+  List<PooledConnection> values() {
+    return new ArrayList<>(sharedList);
+  }
+
+  /**
+   * Counts the connections currently in the given state.
+   *
+   * @param state the state to count
+   * @return the number of connections
+   */
+  int getCount(int state) {
+    int count = 0;
+    for (PooledConnection conn : sharedList) {
+      if (conn.getState() == state) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  int getWaitingThreadCount() {
+    return waiters.get();
+  }
+
+}
@@ -17,6 +17,7 @@ package org.apache.ibatis.datasource.pooled;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * @author Clinton Begin
@@ -36,50 +37,80 @@ public class PoolState {
   protected long hadToWaitCount = 0;
   protected long badConnectionCount = 0;
 
+  // Used by the concurrent bag engine, which records statistics without holding this monitor
+  final ConcurrentConnectionBag connectionBag = new ConcurrentConnectionBag();
+  final LongAdder concurrentRequestCount = new LongAdder();
+  final LongAdder concurrentAccumulatedRequestTime = new LongAdder();
+  final LongAdder concurrentAccumulatedCheckoutTime = new LongAdder();
+  final LongAdder concurrentClaimedOverdueConnectionCount = new LongAdder();
+  final LongAdder concurrentAccumulatedCheckoutTimeOfOverdueConnections = new LongAdder();
+  final LongAdder concurrentAccumulatedWaitTime = new LongAdder();
+  final LongAdder concurrentHadToWaitCount = new LongAdder();
+  final LongAdder concurrentBadConnectionCount = new LongAdder();
+  final LongAdder statementCacheHitCount = new LongAdder();
+  final LongAdder statementCacheMissCount = new LongAdder();
+
   public PoolState(PooledDataSource dataSource) {
     this.dataSource = dataSource;
   }
 
   public synchronized long getRequestCount() {
-    return requestCount;
+    return requestCount + concurrentRequestCount.sum();
   }
 
   public synchronized long getAverageRequestTime() {
-    return requestCount == 0 ? 0 : accumulatedRequestTime / requestCount;
+    long count = getRequestCount();
+    return count == 0 ? 0 : (accumulatedRequestTime + concurrentAccumulatedRequestTime.sum()) / count;
   }
 
   public synchronized long getAverageWaitTime() {
-    return hadToWaitCount == 0 ? 0 : accumulatedWaitTime / hadToWaitCount;
+    long count = getHadToWaitCount();
+    return count == 0 ? 0 : (accumulatedWaitTime + concurrentAccumulatedWaitTime.sum()) / count;
 
   }
 
   public synchronized long getHadToWaitCount() {
-    return hadToWaitCount;
+    return hadToWaitCount + concurrentHadToWaitCount.sum();
   }
 
   public synchronized long getBadConnectionCount() {
-    return badConnectionCount;
+    return badConnectionCount + concurrentBadConnectionCount.sum();
   }
 
   public synchronized long getClaimedOverdueConnectionCount() {
-    return claimedOverdueConnectionCount;
+    return claimedOverdueConnectionCount + concurrentClaimedOverdueConnectionCount.sum();
   }
 
   public synchronized long getAverageOverdueCheckoutTime() {
-    return claimedOverdueConnectionCount == 0 ? 0 : accumulatedCheckoutTimeOfOverdueConnections / claimedOverdueConnectionCount;
+    long count = getClaimedOverdueConnectionCount();
+    return count == 0 ? 0 : (accumulatedCheckoutTimeOfOverdueConnections + concurrentAccumulatedCheckoutTimeOfOverdueConnections.sum()) / count;
   }
 
   public synchronized long getAverageCheckoutTime() {
-    return requestCount == 0 ? 0 : accumulatedCheckoutTime / requestCount;
+    long count = getRequestCount();
+    return count == 0 ? 0 : (accumulatedCheckoutTime + concurrentAccumulatedCheckoutTime.sum()) / count;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public long getStatementCacheHitCount() {
+    return statementCacheHitCount.sum();
   }
 
+  /**
+   * @since 3.5.3
+   */
+  public long getStatementCacheMissCount() {
+    return statementCacheMissCount.sum();
+  }
 
   public synchronized int getIdleConnectionCount() {
-    return idleConnections.size();
+    return idleConnections.size() + connectionBag.getCount(PooledConnection.STATE_NOT_IN_USE);
   }
 
   public synchronized int getActiveConnectionCount() {
-    return activeConnections.size();
+    return activeConnections.size() + connectionBag.getCount(PooledConnection.STATE_IN_USE);
   }
 
   @Override
@@ -97,6 +128,14 @@ public class PoolState {
     builder.append("\n poolPingEnabled                ").append(dataSource.poolPingEnabled);
     builder.append("\n poolPingQuery                  ").append(dataSource.poolPingQuery);
     builder.append("\n poolPingConnectionsNotUsedFor  ").append(dataSource.poolPingConnectionsNotUsedFor);
+    builder.append("\n poolConcurrentBagEnabled       ").append(dataSource.poolConcurrentBagEnabled);
+    builder.append("\n poolPingUseIsValid             ").append(dataSource.poolPingUseIsValid);
+    builder.append("\n poolPingTimeout                ").append(dataSource.poolPingTimeout);
+    builder.append("\n poolHousekeepingInterval       ").append(dataSource.poolHousekeepingInterval);
+    builder.append("\n poolMaximumLifetime            ").append(dataSource.poolMaximumLifetime);
+    builder.append("\n poolMaximumIdleTime            ").append(dataSource.poolMaximumIdleTime);
+    builder.append("\n poolMinimumIdleConnections     ").append(dataSource.poolMinimumIdleConnections);
+    builder.append("\n poolStatementCacheSize         ").append(dataSource.poolStatementCacheSize);
     builder.append("\n ---STATUS-----------------------------------------------------");
     builder.append("\n activeConnections              ").append(getActiveConnectionCount());
     builder.append("\n idleConnections                ").append(getIdleConnectionCount());
@@ -108,6 +147,8 @@ public class PoolState {
     builder.append("\n hadToWait                      ").append(getHadToWaitCount());
     builder.append("\n averageWaitTime                ").append(getAverageWaitTime());
     builder.append("\n badConnectionCount             ").append(getBadConnectionCount());
+    builder.append("\n statementCacheHitCount         ").append(getStatementCacheHitCount());
+    builder.append("\n statementCacheMissCount        ").append(getStatementCacheMissCount());
     builder.append("\n===============================================================");
     return builder.toString();
   }
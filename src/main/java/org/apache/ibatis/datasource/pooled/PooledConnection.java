@@ -20,6 +20,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.ibatis.reflection.ExceptionUtil;
 
@@ -28,18 +29,25 @@ import org.apache.ibatis.reflection.ExceptionUtil;
  */
 class PooledConnection implements InvocationHandler {
 
+  static final int STATE_RESERVED = -2;
+  static final int STATE_REMOVED = -1;
+  static final int STATE_NOT_IN_USE = 0;
+  static final int STATE_IN_USE = 1;
+
   private static final String CLOSE = "close";
   private static final Class<?>[] IFACES = new Class<?>[] { Connection.class };
 
   private final int hashCode;
   private final PooledDataSource dataSource;
   private final Connection realConnection;
-  private final Connection proxyConnection;
+  private final AtomicInteger state = new AtomicInteger(STATE_NOT_IN_USE);
+  private volatile Connection proxyConnection;
   private long checkoutTimestamp;
   private long createdTimestamp;
   private long lastUsedTimestamp;
   private int connectionTypeCode;
   private boolean valid;
+  private PooledStatementCache statementCache;
 
   /**
    * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in.
@@ -55,6 +63,65 @@ class PooledConnection implements InvocationHandler {
     this.lastUsedTimestamp = System.currentTimeMillis();
     this.valid = true;
     this.proxyConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), IFACES, this);
+    if (dataSource.getPoolStatementCacheSize() > 0) {
+      this.statementCache = new PooledStatementCache(connection, dataSource.getPoolState(), dataSource.getPoolStatementCacheSize());
+    }
+  }
+
+  /**
+   * Replaces the proxy handed out to callers, so that proxies obtained by a previous checkout
+   * of this connection can no longer reach the real connection.
+   */
+  void renewProxyConnection() {
+    this.proxyConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), IFACES, this);
+  }
+
+  /**
+   * Getter for the state of this connection in a {@link ConcurrentConnectionBag}.
+   *
+   * @return the state
+   */
+  int getState() {
+    return state.get();
+  }
+
+  /**
+   * Setter for the state of this connection in a {@link ConcurrentConnectionBag}.
+   *
+   * @param update - the new state
+   */
+  void setState(int update) {
+    state.set(update);
+  }
+
+  /**
+   * Atomically moves this connection from one state to another.
+   *
+   * @param expect - the expected current state
+   * @param update - the new state
+   * @return True if the transition was made
+   */
+  boolean compareAndSetState(int expect, int update) {
+    return state.compareAndSet(expect, update);
+  }
+
+  /**
+   * Getter for the cache of the statements prepared on the real connection.
+   *
+   * @return the cache, or null if statements are not cached
+   */
+  PooledStatementCache getStatementCache() {
+    return statementCache;
+  }
+
+  /**
+   * Setter for the cache of the statements prepared on the real connection, used when
+   * the real connection is wrapped again.
+   *
+   * @param statementCache - the cache
+   */
+  void setStatementCache(PooledStatementCache statementCache) {
+    this.statementCache = statementCache;
   }
 
   /**
@@ -232,15 +299,24 @@ class PooledConnection implements InvocationHandler {
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
     String methodName = method.getName();
+    boolean stale = proxy != proxyConnection;
     if (CLOSE.hashCode() == methodName.hashCode() && CLOSE.equals(methodName)) {
-      dataSource.pushConnection(this);
+      if (!stale) {
+        dataSource.pushConnection(this);
+      }
       return null;
     }
     try {
       if (!Object.class.equals(method.getDeclaringClass())) {
         // issue #579 toString() should never fail
         // throw an SQLException instead of a Runtime
+        if (stale) {
+          throw new SQLException("Error accessing PooledConnection. Connection is invalid.");
+        }
         checkConnection();
+        if (statementCache != null && PooledStatementCache.isCacheable(methodName)) {
+          return statementCache.prepare(method, args);
+        }
       }
       return method.invoke(realConnection, args);
     } catch (Throwable t) {
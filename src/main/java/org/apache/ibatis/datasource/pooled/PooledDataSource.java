@@ -16,13 +16,20 @@
 package org.apache.ibatis.datasource.pooled;
 
 import java.io.PrintWriter;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import javax.sql.DataSource;
@@ -53,8 +60,17 @@ public class PooledDataSource implements DataSource {
   protected String poolPingQuery = "NO PING QUERY SET";
   protected boolean poolPingEnabled;
   protected int poolPingConnectionsNotUsedFor;
+  protected boolean poolConcurrentBagEnabled;
+  protected boolean poolPingUseIsValid;
+  protected int poolPingTimeout;
+  protected int poolHousekeepingInterval;
+  protected int poolMaximumLifetime;
+  protected int poolMaximumIdleTime;
+  protected int poolMinimumIdleConnections;
+  protected int poolStatementCacheSize;
 
   private int expectedConnectionTypeCode;
+  private volatile ScheduledExecutorService housekeeper;
 
   public PooledDataSource() {
     dataSource = new UnpooledDataSource();
@@ -247,6 +263,104 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /**
+   * Determines if connections are pooled in a lock-free concurrent bag instead of two lists
+   * guarded by the {@link PoolState} monitor. The bag scales better when many threads compete
+   * for connections.
+   *
+   * @param poolConcurrentBagEnabled True to use the concurrent bag
+   * @since 3.5.3
+   */
+  public void setPoolConcurrentBagEnabled(boolean poolConcurrentBagEnabled) {
+    this.poolConcurrentBagEnabled = poolConcurrentBagEnabled;
+    forceCloseAll();
+  }
+
+  /**
+   * Determines if connections are checked with {@link Connection#isValid(int)} instead of
+   * the ping query.
+   *
+   * @param poolPingUseIsValid True to validate connections through the driver
+   * @since 3.5.3
+   */
+  public void setPoolPingUseIsValid(boolean poolPingUseIsValid) {
+    this.poolPingUseIsValid = poolPingUseIsValid;
+    forceCloseAll();
+  }
+
+  /**
+   * The number of seconds to wait for a connection check to complete.
+   *
+   * @param seconds the timeout in seconds, 0 means no limit
+   * @since 3.5.3
+   */
+  public void setPoolPingTimeout(int seconds) {
+    this.poolPingTimeout = seconds;
+    forceCloseAll();
+  }
+
+  /**
+   * How often a background thread checks idle connections, evicts expired ones and tops up
+   * the pool to {@link #setPoolMinimumIdleConnections(int) the minimum idle connections}.
+   * While the housekeeping thread runs, the ping is no longer executed when a connection is checked out.
+   *
+   * @param milliseconds the interval in milliseconds, 0 disables housekeeping
+   * @since 3.5.3
+   */
+  public void setPoolHousekeepingInterval(int milliseconds) {
+    this.poolHousekeepingInterval = milliseconds;
+    stopHousekeeper();
+    forceCloseAll();
+  }
+
+  /**
+   * The maximum time a connection can live in the pool. Older connections are closed when they are
+   * returned, or by the housekeeping thread while they are idle.
+   *
+   * @param milliseconds the maximum lifetime in milliseconds, 0 means no limit
+   * @since 3.5.3
+   */
+  public void setPoolMaximumLifetime(int milliseconds) {
+    this.poolMaximumLifetime = milliseconds;
+    forceCloseAll();
+  }
+
+  /**
+   * The maximum time a connection can stay unused in the pool before the housekeeping thread closes it.
+   * Connections within {@link #setPoolMinimumIdleConnections(int) the minimum idle connections} are kept.
+   *
+   * @param milliseconds the maximum idle time in milliseconds, 0 means no limit
+   * @since 3.5.3
+   */
+  public void setPoolMaximumIdleTime(int milliseconds) {
+    this.poolMaximumIdleTime = milliseconds;
+    forceCloseAll();
+  }
+
+  /**
+   * The number of idle connections the housekeeping thread keeps open.
+   *
+   * @param poolMinimumIdleConnections The minimum number of idle connections
+   * @since 3.5.3
+   */
+  public void setPoolMinimumIdleConnections(int poolMinimumIdleConnections) {
+    this.poolMinimumIdleConnections = poolMinimumIdleConnections;
+    forceCloseAll();
+  }
+
+  /**
+   * The number of idle prepared and callable statements kept open per connection, so that sessions
+   * preparing the same SQL on the same pooled connection reuse the statement. The least recently
+   * used statements are closed beyond this number.
+   *
+   * @param poolStatementCacheSize the number of statements, 0 disables the cache
+   * @since 3.5.3
+   */
+  public void setPoolStatementCacheSize(int poolStatementCacheSize) {
+    this.poolStatementCacheSize = poolStatementCacheSize;
+    forceCloseAll();
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -314,6 +428,62 @@ public class PooledDataSource implements DataSource {
     return poolPingConnectionsNotUsedFor;
   }
 
+  /**
+   * @since 3.5.3
+   */
+  public boolean isPoolConcurrentBagEnabled() {
+    return poolConcurrentBagEnabled;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public boolean isPoolPingUseIsValid() {
+    return poolPingUseIsValid;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public int getPoolPingTimeout() {
+    return poolPingTimeout;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public int getPoolHousekeepingInterval() {
+    return poolHousekeepingInterval;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public int getPoolMaximumLifetime() {
+    return poolMaximumLifetime;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public int getPoolMaximumIdleTime() {
+    return poolMaximumIdleTime;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public int getPoolMinimumIdleConnections() {
+    return poolMinimumIdleConnections;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public int getPoolStatementCacheSize() {
+    return poolStatementCacheSize;
+  }
+
   /**
    * Closes all active and idle connections in the pool.
    */
@@ -339,6 +509,20 @@ public class PooledDataSource implements DataSource {
           PooledConnection conn = state.idleConnections.remove(i - 1);
           conn.invalidate();
 
+          Connection realConn = conn.getRealConnection();
+          if (!realConn.getAutoCommit()) {
+            realConn.rollback();
+          }
+          realConn.close();
+        } catch (Exception e) {
+          // ignore
+        }
+      }
+      for (PooledConnection conn : state.connectionBag.values()) {
+        try {
+          state.connectionBag.remove(conn);
+          conn.invalidate();
+
           Connection realConn = conn.getRealConnection();
           if (!realConn.getAutoCommit()) {
             realConn.rollback();
@@ -363,16 +547,22 @@ public class PooledDataSource implements DataSource {
   }
 
   protected void pushConnection(PooledConnection conn) throws SQLException {
+    if (poolConcurrentBagEnabled) {
+      pushConcurrentConnection(conn);
+      return;
+    }
 
     synchronized (state) {
       state.activeConnections.remove(conn);
       if (conn.isValid()) {
-        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
+        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode
+            && !isExpired(conn)) {
           state.accumulatedCheckoutTime += conn.getCheckoutTime();
           if (!conn.getRealConnection().getAutoCommit()) {
             conn.getRealConnection().rollback();
           }
           PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
+          newConn.setStatementCache(conn.getStatementCache());
           state.idleConnections.add(newConn);
           newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
           newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
@@ -402,6 +592,12 @@ public class PooledDataSource implements DataSource {
   }
 
   private PooledConnection popConnection(String username, String password) throws SQLException {
+    if (poolHousekeepingInterval > 0 && housekeeper == null) {
+      startHousekeeper();
+    }
+    if (poolConcurrentBagEnabled) {
+      return popConcurrentConnection(username, password);
+    }
     boolean countedWait = false;
     PooledConnection conn = null;
     long t = System.currentTimeMillis();
@@ -515,6 +711,177 @@ public class PooledDataSource implements DataSource {
     return conn;
   }
 
+  private void pushConcurrentConnection(PooledConnection conn) throws SQLException {
+    ConcurrentConnectionBag bag = state.connectionBag;
+    if (!conn.compareAndSetState(PooledConnection.STATE_IN_USE, PooledConnection.STATE_RESERVED)) {
+      // claimed as overdue or removed by forceCloseAll() while checked out
+      if (log.isDebugEnabled()) {
+        log.debug("Connection " + conn.getRealHashCode() + " is no longer owned by the caller, ignoring return.");
+      }
+      return;
+    }
+    if (conn.isValid()) {
+      state.concurrentAccumulatedCheckoutTime.add(conn.getCheckoutTime());
+      try {
+        if (!conn.getRealConnection().getAutoCommit()) {
+          conn.getRealConnection().rollback();
+        }
+      } catch (SQLException e) {
+        bag.remove(conn);
+        conn.invalidate();
+        throw e;
+      }
+      if (bag.getCount(PooledConnection.STATE_NOT_IN_USE) < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode
+          && !isExpired(conn)) {
+        // the proxy held by the caller must not reach the connection once somebody else borrows it
+        conn.renewProxyConnection();
+        if (log.isDebugEnabled()) {
+          log.debug("Returned connection " + conn.getRealHashCode() + " to pool.");
+        }
+        bag.requite(conn);
+      } else {
+        bag.remove(conn);
+        conn.getRealConnection().close();
+        if (log.isDebugEnabled()) {
+          log.debug("Closed connection " + conn.getRealHashCode() + ".");
+        }
+        conn.invalidate();
+      }
+    } else {
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+      }
+      bag.remove(conn);
+      state.concurrentBadConnectionCount.increment();
+    }
+  }
+
+  private PooledConnection popConcurrentConnection(String username, String password) throws SQLException {
+    ConcurrentConnectionBag bag = state.connectionBag;
+    boolean countedWait = false;
+    PooledConnection conn = null;
+    long t = System.currentTimeMillis();
+    int localBadConnectionCount = 0;
+
+    while (conn == null) {
+      conn = bag.borrow();
+      if (conn != null) {
+        if (log.isDebugEnabled()) {
+          log.debug("Checked out connection " + conn.getRealHashCode() + " from pool.");
+        }
+      } else if (bag.reserve(poolMaximumActiveConnections)) {
+        // Can create new connection
+        try {
+          conn = new PooledConnection(dataSource.getConnection(), this);
+        } catch (SQLException | RuntimeException e) {
+          bag.release();
+          throw e;
+        }
+        bag.add(conn);
+        if (log.isDebugEnabled()) {
+          log.debug("Created connection " + conn.getRealHashCode() + ".");
+        }
+      } else {
+        conn = claimOverdueConnection(bag);
+        if (conn == null) {
+          // Must wait
+          try {
+            if (!countedWait) {
+              state.concurrentHadToWaitCount.increment();
+              countedWait = true;
+            }
+            if (log.isDebugEnabled()) {
+              log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
+            }
+            long wt = System.currentTimeMillis();
+            conn = bag.await(poolTimeToWait);
+            state.concurrentAccumulatedWaitTime.add(System.currentTimeMillis() - wt);
+          } catch (InterruptedException e) {
+            break;
+          }
+          if (conn != null && log.isDebugEnabled()) {
+            log.debug("Checked out connection " + conn.getRealHashCode() + " from pool.");
+          }
+        }
+      }
+      if (conn != null) {
+        // ping to server and check the connection is valid or not
+        if (conn.isValid()) {
+          try {
+            if (!conn.getRealConnection().getAutoCommit()) {
+              conn.getRealConnection().rollback();
+            }
+          } catch (SQLException e) {
+            bag.remove(conn);
+            conn.invalidate();
+            throw e;
+          }
+          conn.setConnectionTypeCode(assembleConnectionTypeCode(dataSource.getUrl(), username, password));
+          conn.setCheckoutTimestamp(System.currentTimeMillis());
+          conn.setLastUsedTimestamp(System.currentTimeMillis());
+          state.concurrentRequestCount.increment();
+          state.concurrentAccumulatedRequestTime.add(System.currentTimeMillis() - t);
+        } else {
+          if (log.isDebugEnabled()) {
+            log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
+          }
+          bag.remove(conn);
+          state.concurrentBadConnectionCount.increment();
+          localBadConnectionCount++;
+          conn = null;
+          if (localBadConnectionCount > (poolMaximumIdleConnections + poolMaximumLocalBadConnectionTolerance)) {
+            if (log.isDebugEnabled()) {
+              log.debug("PooledDataSource: Could not get a good connection to the database.");
+            }
+            throw new SQLException("PooledDataSource: Could not get a good connection to the database.");
+          }
+        }
+      }
+    }
+
+    if (conn == null) {
+      if (log.isDebugEnabled()) {
+        log.debug("PooledDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
+      }
+      throw new SQLException("PooledDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
+    }
+
+    return conn;
+  }
+
+  private PooledConnection claimOverdueConnection(ConcurrentConnectionBag bag) {
+    PooledConnection oldestActiveConnection = null;
+    long longestCheckoutTime = 0;
+    for (PooledConnection candidate : bag.values()) {
+      if (candidate.getState() == PooledConnection.STATE_IN_USE && candidate.getCheckoutTime() > longestCheckoutTime) {
+        oldestActiveConnection = candidate;
+        longestCheckoutTime = candidate.getCheckoutTime();
+      }
+    }
+    if (oldestActiveConnection == null || longestCheckoutTime <= poolMaximumCheckoutTime
+        || !oldestActiveConnection.compareAndSetState(PooledConnection.STATE_IN_USE, PooledConnection.STATE_RESERVED)) {
+      return null;
+    }
+    // Can claim overdue connection
+    state.concurrentClaimedOverdueConnectionCount.increment();
+    state.concurrentAccumulatedCheckoutTimeOfOverdueConnections.add(longestCheckoutTime);
+    state.concurrentAccumulatedCheckoutTime.add(longestCheckoutTime);
+    try {
+      if (!oldestActiveConnection.getRealConnection().getAutoCommit()) {
+        oldestActiveConnection.getRealConnection().rollback();
+      }
+    } catch (SQLException e) {
+      // Just log a message for debug, the connection is validated again before it is handed out
+      log.debug("Bad connection. Could not roll back");
+    }
+    oldestActiveConnection.renewProxyConnection();
+    oldestActiveConnection.setState(PooledConnection.STATE_IN_USE);
+    if (log.isDebugEnabled()) {
+      log.debug("Claimed overdue connection " + oldestActiveConnection.getRealHashCode() + ".");
+    }
+    return oldestActiveConnection;
+  }
+
   /**
    * Method to check to see if a connection is still usable
    *
@@ -534,41 +901,220 @@ public class PooledDataSource implements DataSource {
     }
 
     if (result) {
-      if (poolPingEnabled) {
+      // the housekeeping thread validates idle connections, so checkouts do not have to
+      if (poolPingEnabled && poolHousekeepingInterval <= 0) {
         if (poolPingConnectionsNotUsedFor >= 0 && conn.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUsedFor) {
-          try {
-            if (log.isDebugEnabled()) {
-              log.debug("Testing connection " + conn.getRealHashCode() + " ...");
-            }
-            Connection realConn = conn.getRealConnection();
-            try (Statement statement = realConn.createStatement()) {
-              statement.executeQuery(poolPingQuery).close();
-            }
-            if (!realConn.getAutoCommit()) {
-              realConn.rollback();
-            }
-            result = true;
-            if (log.isDebugEnabled()) {
-              log.debug("Connection " + conn.getRealHashCode() + " is GOOD!");
-            }
-          } catch (Exception e) {
-            log.warn("Execution of ping query '" + poolPingQuery + "' failed: " + e.getMessage());
-            try {
-              conn.getRealConnection().close();
-            } catch (Exception e2) {
-              //ignore
-            }
-            result = false;
-            if (log.isDebugEnabled()) {
-              log.debug("Connection " + conn.getRealHashCode() + " is BAD: " + e.getMessage());
-            }
-          }
+          result = executePing(conn);
         }
       }
     }
     return result;
   }
 
+  private boolean executePing(PooledConnection conn) {
+    try {
+      if (log.isDebugEnabled()) {
+        log.debug("Testing connection " + conn.getRealHashCode() + " ...");
+      }
+      Connection realConn = conn.getRealConnection();
+      if (poolPingUseIsValid) {
+        if (!realConn.isValid(poolPingTimeout)) {
+          throw new SQLException("Connection.isValid() returned false");
+        }
+      } else {
+        try (Statement statement = realConn.createStatement()) {
+          statement.setQueryTimeout(poolPingTimeout);
+          statement.executeQuery(poolPingQuery).close();
+        }
+        if (!realConn.getAutoCommit()) {
+          realConn.rollback();
+        }
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Connection " + conn.getRealHashCode() + " is GOOD!");
+      }
+      return true;
+    } catch (Exception e) {
+      if (poolPingUseIsValid) {
+        log.warn("Validation of connection " + conn.getRealHashCode() + " failed: " + e.getMessage());
+      } else {
+        log.warn("Execution of ping query '" + poolPingQuery + "' failed: " + e.getMessage());
+      }
+      try {
+        conn.getRealConnection().close();
+      } catch (Exception e2) {
+        //ignore
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Connection " + conn.getRealHashCode() + " is BAD: " + e.getMessage());
+      }
+      return false;
+    }
+  }
+
+  private boolean isExpired(PooledConnection conn) {
+    return poolMaximumLifetime > 0 && conn.getAge() > poolMaximumLifetime;
+  }
+
+  private boolean isIdleTooLong(PooledConnection conn) {
+    return poolMaximumIdleTime > 0 && conn.getTimeElapsedSinceLastUse() > poolMaximumIdleTime;
+  }
+
+  private boolean needsPing(PooledConnection conn) {
+    return poolPingEnabled && poolPingConnectionsNotUsedFor >= 0 && conn.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUsedFor;
+  }
+
+  private synchronized void startHousekeeper() {
+    if (housekeeper == null) {
+      ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "PooledDataSource-housekeeper");
+        thread.setDaemon(true);
+        return thread;
+      });
+      executor.scheduleWithFixedDelay(new Housekeeper(this, executor), poolHousekeepingInterval, poolHousekeepingInterval, TimeUnit.MILLISECONDS);
+      housekeeper = executor;
+    }
+  }
+
+  private synchronized void stopHousekeeper() {
+    if (housekeeper != null) {
+      housekeeper.shutdownNow();
+      housekeeper = null;
+    }
+  }
+
+  /**
+   * Validates idle connections in the background, closes the ones past their lifetime or idle time
+   * and opens new ones until the pool has {@link #poolMinimumIdleConnections} idle connections.
+   */
+  void housekeep() {
+    if (poolConcurrentBagEnabled) {
+      housekeepConcurrentBag();
+      return;
+    }
+    List<PooledConnection> candidates = new ArrayList<>();
+    int idleToKeep;
+    synchronized (state) {
+      idleToKeep = state.idleConnections.size();
+      for (Iterator<PooledConnection> it = state.idleConnections.iterator(); it.hasNext();) {
+        PooledConnection conn = it.next();
+        if (isExpired(conn) || isIdleTooLong(conn) || needsPing(conn)) {
+          it.remove();
+          candidates.add(conn);
+        }
+      }
+    }
+    for (PooledConnection conn : candidates) {
+      boolean keep;
+      if (isExpired(conn) || (isIdleTooLong(conn) && idleToKeep > poolMinimumIdleConnections)) {
+        closeIdleConnection(conn, "Evicted");
+        idleToKeep--;
+        keep = false;
+      } else if (needsPing(conn) && !executePing(conn)) {
+        synchronized (state) {
+          state.badConnectionCount++;
+        }
+        conn.invalidate();
+        idleToKeep--;
+        keep = false;
+      } else {
+        keep = true;
+      }
+      if (keep) {
+        synchronized (state) {
+          if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
+            state.idleConnections.add(conn);
+            state.notifyAll();
+            continue;
+          }
+        }
+        closeIdleConnection(conn, "Closed");
+      }
+    }
+    while (true) {
+      synchronized (state) {
+        int idle = state.idleConnections.size();
+        if (idle >= poolMinimumIdleConnections || idle >= poolMaximumIdleConnections
+            || idle + state.activeConnections.size() >= poolMaximumActiveConnections) {
+          return;
+        }
+      }
+      PooledConnection conn = createIdleConnection();
+      if (conn == null) {
+        return;
+      }
+      synchronized (state) {
+        int idle = state.idleConnections.size();
+        if (idle < poolMaximumIdleConnections && idle + state.activeConnections.size() < poolMaximumActiveConnections) {
+          state.idleConnections.add(conn);
+          state.notifyAll();
+          continue;
+        }
+      }
+      closeIdleConnection(conn, "Closed");
+      return;
+    }
+  }
+
+  private void housekeepConcurrentBag() {
+    ConcurrentConnectionBag bag = state.connectionBag;
+    for (PooledConnection conn : bag.values()) {
+      if (!conn.compareAndSetState(PooledConnection.STATE_NOT_IN_USE, PooledConnection.STATE_RESERVED)) {
+        continue;
+      }
+      if (isExpired(conn) || (isIdleTooLong(conn) && bag.getCount(PooledConnection.STATE_NOT_IN_USE) >= poolMinimumIdleConnections)) {
+        bag.remove(conn);
+        closeIdleConnection(conn, "Evicted");
+      } else if (needsPing(conn) && !executePing(conn)) {
+        bag.remove(conn);
+        conn.invalidate();
+        state.concurrentBadConnectionCount.increment();
+      } else {
+        bag.requite(conn);
+      }
+    }
+    while (bag.getCount(PooledConnection.STATE_NOT_IN_USE) < Math.min(poolMinimumIdleConnections, poolMaximumIdleConnections)
+        && bag.reserve(poolMaximumActiveConnections)) {
+      PooledConnection conn = createIdleConnection();
+      if (conn == null) {
+        bag.release();
+        return;
+      }
+      bag.add(conn);
+      bag.requite(conn);
+    }
+  }
+
+  private PooledConnection createIdleConnection() {
+    try {
+      PooledConnection conn = new PooledConnection(dataSource.getConnection(), this);
+      conn.setConnectionTypeCode(expectedConnectionTypeCode);
+      if (log.isDebugEnabled()) {
+        log.debug("Created idle connection " + conn.getRealHashCode() + ".");
+      }
+      return conn;
+    } catch (SQLException e) {
+      log.warn("Could not create an idle connection: " + e.getMessage());
+      return null;
+    }
+  }
+
+  private void closeIdleConnection(PooledConnection conn, String reason) {
+    conn.invalidate();
+    try {
+      Connection realConn = conn.getRealConnection();
+      if (!realConn.getAutoCommit()) {
+        realConn.rollback();
+      }
+      realConn.close();
+    } catch (Exception e) {
+      // ignore
+    }
+    if (log.isDebugEnabled()) {
+      log.debug(reason + " idle connection " + conn.getRealHashCode() + ".");
+    }
+  }
+
   /**
    * Unwraps a pooled connection to get to the 'real' connection
    *
@@ -587,6 +1133,7 @@ public class PooledDataSource implements DataSource {
 
   @Override
   protected void finalize() throws Throwable {
+    stopHousekeeper();
     forceCloseAll();
     super.finalize();
   }
@@ -606,4 +1153,34 @@ public class PooledDataSource implements DataSource {
     return Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
   }
 
+  /**
+   * Runs the housekeeping of a data source without keeping it reachable, so that an abandoned
+   * data source can still be finalized.
+   */
+  private static class Housekeeper implements Runnable {
+
+    private final WeakReference<PooledDataSource> dataSource;
+    private final ScheduledExecutorService executor;
+
+    Housekeeper(PooledDataSource dataSource, ScheduledExecutorService executor) {
+      this.dataSource = new WeakReference<>(dataSource);
+      this.executor = executor;
+    }
+
+    @Override
+    public void run() {
+      PooledDataSource ds = dataSource.get();
+      if (ds == null) {
+        executor.shutdown();
+        return;
+      }
+      try {
+        ds.housekeep();
+      } catch (RuntimeException e) {
+        log.warn("Pool housekeeping failed: " + e.getMessage());
+      }
+    }
+
+  }
+
 }
@@ -0,0 +1,245 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * A bounded LRU cache of the prepared and callable statements of a physical connection, kept for as long as the
+ * connection stays in the pool.
+ * <p>
+ * A statement handed out by the cache is a proxy whose {@code close()} restores the settings changed by the caller
+ * and returns the physical statement to the cache instead of closing it. Only idle statements are cached, so the
+ * same SQL prepared twice while the first statement is open gets two physical statements.
+ */
+class PooledStatementCache {
+
+  private static final String PREPARE_STATEMENT = "prepareStatement";
+  private static final String PREPARE_CALL = "prepareCall";
+
+  // the getters of the settings restored when a statement returns to the cache, by setter name
+  private static final Map<String, Method> RESTORED_SETTINGS = new HashMap<>();
+
+  static {
+    try {
+      for (String setting : new String[] { "FetchSize", "FetchDirection", "MaxRows", "MaxFieldSize", "QueryTimeout" }) {
+        RESTORED_SETTINGS.put("set" + setting, Statement.class.getMethod("get" + setting));
+      }
+    } catch (NoSuchMethodException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final Connection realConnection;
+  private final PoolState state;
+  private final Map<StatementKey, Statement> idleStatements;
+
+  PooledStatementCache(Connection realConnection, PoolState state, int maximumSize) {
+    this.realConnection = realConnection;
+    this.state = state;
+    this.idleStatements = new LinkedHashMap<StatementKey, Statement>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<StatementKey, Statement> eldest) {
+        if (size() > maximumSize) {
+          closeQuietly(eldest.getValue());
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  static boolean isCacheable(String methodName) {
+    return PREPARE_STATEMENT.equals(methodName) || PREPARE_CALL.equals(methodName);
+  }
+
+  /**
+   * Prepares a statement like {@code method} would on the real connection, reusing an idle one if there is.
+   *
+   * @param method the {@code prepareStatement} or {@code prepareCall} method
+   * @param args the arguments of the method
+   * @return a proxy of the statement
+   * @throws Throwable the exception thrown by the real connection
+   */
+  Statement prepare(Method method, Object[] args) throws Throwable {
+    StatementKey key = new StatementKey(method.getName(), args);
+    Statement statement;
+    synchronized (this) {
+      statement = idleStatements.remove(key);
+    }
+    if (statement != null) {
+      state.statementCacheHitCount.increment();
+    } else {
+      state.statementCacheMissCount.increment();
+      statement = (Statement) method.invoke(realConnection, args);
+    }
+    Class<?> type = PREPARE_CALL.equals(method.getName()) ? CallableStatement.class : PreparedStatement.class;
+    return (Statement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+        new CachedStatement(key, statement));
+  }
+
+  private void release(StatementKey key, Statement statement) {
+    Statement replaced;
+    synchronized (this) {
+      replaced = idleStatements.put(key, statement);
+    }
+    // the same SQL was prepared twice, keep the last one returned
+    if (replaced != null && replaced != statement) {
+      closeQuietly(replaced);
+    }
+  }
+
+  private static void closeQuietly(Statement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+  private class CachedStatement implements InvocationHandler {
+
+    private final StatementKey key;
+    private final Statement statement;
+    private Map<Method, Object> changedSettings;
+    private boolean batched;
+    private boolean detached;
+    private boolean closed;
+
+    CachedStatement(StatementKey key, Statement statement) {
+      this.key = key;
+      this.statement = statement;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String methodName = method.getName();
+      if (Object.class.equals(method.getDeclaringClass())) {
+        switch (methodName) {
+          case "equals":
+            return proxy == args[0];
+          case "hashCode":
+            return System.identityHashCode(proxy);
+          default:
+            return statement.toString();
+        }
+      }
+      if ("close".equals(methodName)) {
+        close();
+        return null;
+      } else if ("isClosed".equals(methodName)) {
+        return closed || statement.isClosed();
+      } else if (closed) {
+        throw new SQLException("Statement is closed.");
+      }
+      if ("closeOnCompletion".equals(methodName)) {
+        // the driver will close the statement, so it can no longer be reused
+        detached = true;
+      } else if ("addBatch".equals(methodName)) {
+        batched = true;
+      } else if (RESTORED_SETTINGS.containsKey(methodName)) {
+        if (changedSettings == null) {
+          changedSettings = new HashMap<>();
+        }
+        if (!changedSettings.containsKey(method)) {
+          changedSettings.put(method, RESTORED_SETTINGS.get(methodName).invoke(statement));
+        }
+      }
+      try {
+        return method.invoke(statement, args);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    }
+
+    private void close() throws SQLException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (detached || statement.isClosed()) {
+        statement.close();
+        return;
+      }
+      try {
+        reset();
+      } catch (Exception e) {
+        closeQuietly(statement);
+        return;
+      }
+      release(key, statement);
+    }
+
+    private void reset() throws Exception {
+      ((PreparedStatement) statement).clearParameters();
+      if (batched) {
+        statement.clearBatch();
+      }
+      if (changedSettings != null) {
+        for (Map.Entry<Method, Object> setting : changedSettings.entrySet()) {
+          setting.getKey().invoke(statement, setting.getValue());
+        }
+      }
+      statement.clearWarnings();
+    }
+  }
+
+  private static class StatementKey {
+
+    private final String methodName;
+    private final Object[] args;
+    private final int hashCode;
+
+    StatementKey(String methodName, Object[] args) {
+      this.methodName = methodName;
+      this.args = args == null ? new Object[0] : args.clone();
+      this.hashCode = 31 * methodName.hashCode() + Arrays.deepHashCode(this.args);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof StatementKey)) {
+        return false;
+      }
+      StatementKey other = (StatementKey) o;
+      return methodName.equals(other.methodName) && Arrays.deepEquals(args, other.args);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+}
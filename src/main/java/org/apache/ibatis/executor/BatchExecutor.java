@@ -17,11 +17,17 @@ package org.apache.ibatis.executor;
 
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
@@ -30,6 +36,8 @@ import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -44,8 +52,17 @@ public class BatchExecutor extends BaseExecutor {
 
   private final List<Statement> statementList = new ArrayList<>();
   private final List<BatchResult> batchResultList = new ArrayList<>();
+  private final List<BatchResult> autoFlushedResults = new ArrayList<>();
   private String currentSql;
   private MappedStatement currentStatement;
+  private int pendingCount;
+  private long pendingBytes;
+  // statement grouping: batch index per statement, tables per batch and the calls as runs of {batch index, count}
+  private final Map<StatementKey, Integer> groupIndexes = new HashMap<>();
+  private final List<Set<String>> groupTables = new ArrayList<>();
+  private final List<int[]> callRuns = new ArrayList<>();
+  // batches rewritten as multi row inserts, by batch index; their statements are only prepared at flush time
+  private final Map<Integer, MultiRowInsert> multiRowInserts = new HashMap<>();
 
   public BatchExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
@@ -57,27 +74,211 @@ public class BatchExecutor extends BaseExecutor {
     final StatementHandler handler = configuration.newStatementHandler(this, ms, parameterObject, RowBounds.DEFAULT, null, null);
     final BoundSql boundSql = handler.getBoundSql();
     final String sql = boundSql.getSql();
+    final boolean grouping = configuration.isBatchStatementGrouping();
+    int index = grouping ? groupIndexOf(ms, boundSql) : currentIndexOf(ms, sql);
     final Statement stmt;
-    if (sql.equals(currentSql) && ms.equals(currentStatement)) {
-      int last = statementList.size() - 1;
-      stmt = statementList.get(last);
-      applyTransactionTimeout(stmt);
-      handler.parameterize(stmt);//fix Issues 322
-      BatchResult batchResult = batchResultList.get(last);
+    if (index >= 0) {
+      stmt = statementList.get(index);
+      if (stmt != null) {
+        applyTransactionTimeout(stmt);
+        handler.parameterize(stmt);//fix Issues 322
+      }
+      BatchResult batchResult = batchResultList.get(index);
       batchResult.addParameterObject(parameterObject);
     } else {
-      Connection connection = getConnection(ms.getStatementLog());
-      stmt = handler.prepare(connection, transaction.getTimeout());
-      handler.parameterize(stmt);    //fix Issues 322
+      MultiRowInsert multiRowInsert = configuration.getBatchInsertRewriteSize() > 1 ? MultiRowInsert.of(ms, boundSql) : null;
+      if (multiRowInsert == null) {
+        Connection connection = getConnection(ms.getStatementLog());
+        stmt = handler.prepare(connection, transaction.getTimeout());
+        handler.parameterize(stmt);    //fix Issues 322
+      } else {
+        stmt = null;
+        multiRowInserts.put(statementList.size(), multiRowInsert);
+      }
       currentSql = sql;
       currentStatement = ms;
       statementList.add(stmt);
       batchResultList.add(new BatchResult(ms, sql, parameterObject));
+      index = statementList.size() - 1;
+      if (grouping) {
+        groupIndexes.put(new StatementKey(ms, sql), index);
+        groupTables.add(ms.getTables(boundSql));
+      }
     }
-    handler.batch(stmt);
+    if (grouping) {
+      recordCall(index);
+    }
+    if (stmt != null) {
+      handler.batch(stmt);
+    } else {
+      multiRowInserts.get(index).addRow(parameterValues(boundSql, parameterObject));
+    }
+    autoFlushIfNeeded(boundSql, parameterObject);
     return BATCH_UPDATE_RETURN_VALUE;
   }
 
+  private int currentIndexOf(MappedStatement ms, String sql) {
+    return sql.equals(currentSql) && ms.equals(currentStatement) ? statementList.size() - 1 : -1;
+  }
+
+  private int groupIndexOf(MappedStatement ms, BoundSql boundSql) throws SQLException {
+    Integer index = groupIndexes.get(new StatementKey(ms, boundSql.getSql()));
+    if (index == null) {
+      return -1;
+    }
+    if (mustFollowLaterGroups(ms, boundSql, index)) {
+      // the call cannot be moved ahead of the batches opened since, so run everything pending first
+      keepAutoFlushedResults(doFlushStatements(false));
+      return -1;
+    }
+    return index;
+  }
+
+  private boolean mustFollowLaterGroups(MappedStatement ms, BoundSql boundSql, int index) {
+    Set<String> tables = ms.getTables(boundSql);
+    for (int i = index + 1, n = batchResultList.size(); i < n; i++) {
+      if (ms.getBatchDependsOn().contains(batchResultList.get(i).getMappedStatement().getId())) {
+        return true;
+      }
+      Set<String> laterTables = groupTables.get(i);
+      // unknown tables may be any table
+      if (tables.isEmpty() || laterTables.isEmpty() || !Collections.disjoint(tables, laterTables)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void recordCall(int index) {
+    int[] last = callRuns.isEmpty() ? null : callRuns.get(callRuns.size() - 1);
+    if (last != null && last[0] == index) {
+      last[1]++;
+    } else {
+      callRuns.add(new int[] { index, 1 });
+    }
+  }
+
+  private List<BatchResult> inCallOrder(List<BatchResult> results) {
+    if (!callRuns.isEmpty()) {
+      List<BatchResult> groupResults = results.subList(autoFlushedResults.size(), results.size());
+      List<BatchResult> callResults = toCallOrder(new ArrayList<>(groupResults));
+      groupResults.clear();
+      results.addAll(callResults);
+    }
+    return results;
+  }
+
+  /**
+   * @param groupResults the results of the first groups, all of them unless a group failed
+   */
+  private List<BatchResult> toCallOrder(List<BatchResult> groupResults) {
+    if (callRuns.size() == batchResultList.size()) {
+      // no interleaved calls, the batches are already in call order
+      return groupResults;
+    }
+    List<BatchResult> results = new ArrayList<>(callRuns.size());
+    int[] offsets = new int[groupResults.size()];
+    for (int[] run : callRuns) {
+      if (run[0] >= groupResults.size()) {
+        // the calls of the failed group and of the groups after it did not complete
+        continue;
+      }
+      BatchResult groupResult = groupResults.get(run[0]);
+      int from = offsets[run[0]];
+      int to = from + run[1];
+      offsets[run[0]] = to;
+      BatchResult result = new BatchResult(groupResult.getMappedStatement(), groupResult.getSql());
+      List<Object> parameterObjects = groupResult.getParameterObjects();
+      if (to <= parameterObjects.size()) {
+        result.getParameterObjects().addAll(parameterObjects.subList(from, to));
+      }
+      int[] updateCounts = groupResult.getUpdateCounts();
+      if (updateCounts != null) {
+        result.setUpdateCounts(Arrays.copyOfRange(updateCounts, Math.min(from, updateCounts.length), Math.min(to, updateCounts.length)));
+      }
+      results.add(result);
+    }
+    return results;
+  }
+
+  private void autoFlushIfNeeded(BoundSql boundSql, Object parameterObject) throws SQLException {
+    pendingCount++;
+    if (configuration.getBatchFlushBytes() > 0) {
+      pendingBytes += estimateSize(boundSql, parameterObject);
+    }
+    if ((configuration.getBatchFlushSize() > 0 && pendingCount >= configuration.getBatchFlushSize())
+        || (configuration.getBatchFlushBytes() > 0 && pendingBytes >= configuration.getBatchFlushBytes())) {
+      // the results are kept for the next explicit flush
+      keepAutoFlushedResults(doFlushStatements(false));
+    }
+  }
+
+  private void keepAutoFlushedResults(List<BatchResult> results) {
+    if (configuration.isBatchRetainParameterObjects()) {
+      autoFlushedResults.addAll(results);
+      return;
+    }
+    // without their parameters, the results of a long import are reduced to one total per statement
+    Map<StatementKey, BatchResult> totals = new LinkedHashMap<>();
+    for (BatchResult result : results) {
+      BatchResult total = totals.computeIfAbsent(new StatementKey(result.getMappedStatement(), result.getSql()),
+          k -> new BatchResult(result.getMappedStatement(), result.getSql()));
+      total.setUpdateCounts(new int[] { addUpdateCounts(total.getUpdateCounts(), result.getUpdateCounts()) });
+    }
+    autoFlushedResults.addAll(totals.values());
+  }
+
+  private static int addUpdateCounts(int[] total, int[] updateCounts) {
+    int sum = total == null ? 0 : total[0];
+    if (updateCounts != null) {
+      for (int count : updateCounts) {
+        if (sum == Statement.SUCCESS_NO_INFO || count == Statement.SUCCESS_NO_INFO) {
+          sum = Statement.SUCCESS_NO_INFO;
+        } else {
+          sum += count;
+        }
+      }
+    }
+    return sum;
+  }
+
+  private long estimateSize(BoundSql boundSql, Object parameterObject) {
+    long size = 0;
+    for (Object value : parameterValues(boundSql, parameterObject)) {
+      if (value instanceof CharSequence) {
+        size += 2L * ((CharSequence) value).length();
+      } else if (value instanceof byte[]) {
+        size += ((byte[]) value).length;
+      } else {
+        // numbers, dates and other small values
+        size += 16;
+      }
+    }
+    return size;
+  }
+
+  private Object[] parameterValues(BoundSql boundSql, Object parameterObject) {
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    Object[] values = new Object[parameterMappings.size()];
+    MetaObject metaObject = null;
+    for (int i = 0; i < values.length; i++) {
+      String propertyName = parameterMappings.get(i).getProperty();
+      if (boundSql.hasAdditionalParameter(propertyName)) {
+        values[i] = boundSql.getAdditionalParameter(propertyName);
+      } else if (parameterObject == null) {
+        values[i] = null;
+      } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+        values[i] = parameterObject;
+      } else {
+        if (metaObject == null) {
+          metaObject = configuration.newMetaObject(parameterObject);
+        }
+        values[i] = metaObject.getValue(propertyName);
+      }
+    }
+    return values;
+  }
+
   @Override
   public <E> List<E> doQuery(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql)
       throws SQLException {
@@ -111,46 +312,56 @@ public class BatchExecutor extends BaseExecutor {
   @Override
   public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
     try {
-      List<BatchResult> results = new ArrayList<>();
+      List<BatchResult> results = new ArrayList<>(autoFlushedResults);
       if (isRollback) {
         return Collections.emptyList();
       }
       for (int i = 0, n = statementList.size(); i < n; i++) {
         Statement stmt = statementList.get(i);
-        applyTransactionTimeout(stmt);
         BatchResult batchResult = batchResultList.get(i);
+        MultiRowInsert multiRowInsert = multiRowInserts.get(i);
         try {
-          batchResult.setUpdateCounts(stmt.executeBatch());
           MappedStatement ms = batchResult.getMappedStatement();
           List<Object> parameterObjects = batchResult.getParameterObjects();
-          KeyGenerator keyGenerator = ms.getKeyGenerator();
-          if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
-            Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
-            jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
-          } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
-            for (Object parameter : parameterObjects) {
-              keyGenerator.processAfter(this, ms, stmt, parameter);
+          if (multiRowInsert != null) {
+            batchResult.setUpdateCounts(executeMultiRowInsert(multiRowInsert, parameterObjects));
+          } else {
+            applyTransactionTimeout(stmt);
+            batchResult.setUpdateCounts(stmt.executeBatch());
+            KeyGenerator keyGenerator = ms.getKeyGenerator();
+            if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
+              Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
+              jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
+            } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
+              for (Object parameter : parameterObjects) {
+                keyGenerator.processAfter(this, ms, stmt, parameter);
+              }
             }
           }
+          if (!configuration.isBatchRetainParameterObjects()) {
+            // generated keys, if any, are already assigned to the objects
+            parameterObjects.clear();
+          }
           // Close statement to close cursor #1109
           closeStatement(stmt);
         } catch (BatchUpdateException e) {
+          results = inCallOrder(results);
           StringBuilder message = new StringBuilder();
           message.append(batchResult.getMappedStatement().getId())
               .append(" (batch index #")
               .append(i + 1)
               .append(")")
               .append(" failed.");
-          if (i > 0) {
+          if (results.size() > 0) {
             message.append(" ")
-                .append(i)
+                .append(results.size())
                 .append(" prior sub executor(s) completed successfully, but will be rolled back.");
           }
           throw new BatchExecutorException(message.toString(), e, results, batchResult);
         }
         results.add(batchResult);
       }
-      return results;
+      return inCallOrder(results);
     } finally {
       for (Statement stmt : statementList) {
         closeStatement(stmt);
@@ -158,6 +369,97 @@ public class BatchExecutor extends BaseExecutor {
       currentSql = null;
       statementList.clear();
       batchResultList.clear();
+      autoFlushedResults.clear();
+      groupIndexes.clear();
+      groupTables.clear();
+      callRuns.clear();
+      multiRowInserts.clear();
+      pendingCount = 0;
+      pendingBytes = 0;
+    }
+  }
+
+  private int[] executeMultiRowInsert(MultiRowInsert multiRowInsert, List<Object> parameterObjects) throws SQLException {
+    MappedStatement ms = multiRowInsert.getMappedStatement();
+    // keys are read after each chunk, as not all drivers return the keys of a whole batch
+    boolean readKeys = Jdbc3KeyGenerator.class.equals(ms.getKeyGenerator().getClass());
+    int[] updateCounts = new int[multiRowInsert.size()];
+    List<Integer> chunkSizes = multiRowInsert.chunkSizes(configuration.getBatchInsertRewriteSize());
+    int from = 0;
+    for (int c = 0; c < chunkSizes.size();) {
+      int size = chunkSizes.get(c);
+      int chunks = Collections.frequency(chunkSizes, size);
+      int first = from;
+      Statement stmt = null;
+      try {
+        // chunks of the same size share their SQL and statement
+        for (int k = 0; k < chunks; k++, from += size) {
+          BoundSql boundSql = multiRowInsert.chunk(configuration, from, size);
+          StatementHandler handler = configuration.newStatementHandler(this, ms, null, RowBounds.DEFAULT, null, boundSql);
+          if (stmt == null) {
+            stmt = handler.prepare(getConnection(ms.getStatementLog()), transaction.getTimeout());
+          }
+          handler.parameterize(stmt);
+          if (readKeys) {
+            PreparedStatement ps = (PreparedStatement) stmt;
+            try {
+              ps.execute();
+            } catch (SQLException e) {
+              // reported as a failed batch, with the counts of the rows inserted before the failing chunk
+              throw new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(),
+                  Arrays.copyOf(updateCounts, from), e);
+            }
+            fillUpdateCounts(updateCounts, from, size, ps.getUpdateCount());
+            ((Jdbc3KeyGenerator) ms.getKeyGenerator()).processBatch(ms, ps,
+                new ArrayList<>(parameterObjects.subList(from, from + size)));
+          } else {
+            handler.batch(stmt);
+          }
+        }
+        if (!readKeys) {
+          int[] chunkUpdateCounts = stmt.executeBatch();
+          for (int k = 0; k < chunkUpdateCounts.length && k < chunks; k++) {
+            fillUpdateCounts(updateCounts, first + k * size, size, chunkUpdateCounts[k]);
+          }
+        }
+      } finally {
+        closeStatement(stmt);
+      }
+      c += chunks;
+    }
+    return updateCounts;
+  }
+
+  private static void fillUpdateCounts(int[] updateCounts, int from, int rows, int updateCount) {
+    // the count of a chunk cannot be told apart between its rows
+    Arrays.fill(updateCounts, from, from + rows, updateCount == rows ? 1 : Statement.SUCCESS_NO_INFO);
+  }
+
+  private static final class StatementKey {
+
+    private final MappedStatement mappedStatement;
+    private final String sql;
+
+    StatementKey(MappedStatement mappedStatement, String sql) {
+      this.mappedStatement = mappedStatement;
+      this.sql = sql;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof StatementKey)) {
+        return false;
+      }
+      StatementKey other = (StatementKey) o;
+      return mappedStatement.equals(other.mappedStatement) && sql.equals(other.sql);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * mappedStatement.hashCode() + sql.hashCode();
     }
   }
 
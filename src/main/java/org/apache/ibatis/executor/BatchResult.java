@@ -53,7 +53,8 @@ public class BatchResult {
 
   @Deprecated
   public Object getParameterObject() {
-    return parameterObjects.get(0);
+    // the parameter objects are released after execution unless batchRetainParameterObjects is enabled
+    return parameterObjects.isEmpty() ? null : parameterObjects.get(0);
   }
 
   public List<Object> getParameterObjects() {
@@ -17,9 +17,12 @@ package org.apache.ibatis.executor;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.CacheMetrics;
+import org.apache.ibatis.cache.TableCacheIndex;
 import org.apache.ibatis.cache.TransactionalCacheManager;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.BoundSql;
@@ -39,10 +42,22 @@ import org.apache.ibatis.transaction.Transaction;
 public class CachingExecutor implements Executor {
 
   private final Executor delegate;
-  private final TransactionalCacheManager tcm = new TransactionalCacheManager();
+  private final TransactionalCacheManager tcm;
+  private final boolean invalidateByTable;
 
   public CachingExecutor(Executor delegate) {
+    this(delegate, null);
+  }
+
+  /**
+   * @param delegate the executor
+   * @param tableCacheIndex the index used to invalidate cache entries by table, or null to clear whole namespaces
+   * @since 3.5.3
+   */
+  public CachingExecutor(Executor delegate, TableCacheIndex tableCacheIndex) {
     this.delegate = delegate;
+    this.tcm = new TransactionalCacheManager(tableCacheIndex);
+    this.invalidateByTable = tableCacheIndex != null;
     delegate.setExecutorWrapper(this);
   }
 
@@ -72,7 +87,11 @@ public class CachingExecutor implements Executor {
 
   @Override
   public int update(MappedStatement ms, Object parameterObject) throws SQLException {
-    flushCacheIfRequired(ms);
+    if (invalidateByTable) {
+      invalidateTablesIfRequired(ms, parameterObject);
+    } else {
+      flushCacheIfRequired(ms);
+    }
     return delegate.update(ms, parameterObject);
   }
 
@@ -97,13 +116,16 @@ public class CachingExecutor implements Executor {
       flushCacheIfRequired(ms);
       if (ms.isUseCache() && resultHandler == null) {
         ensureNoOutParams(ms, boundSql);
+        if (invalidateByTable) {
+          return queryByTable(ms, parameterObject, rowBounds, key, boundSql, cache);
+        }
         @SuppressWarnings("unchecked")
         /**
          * 事务处理
          */
           List<E> list = (List<E>) tcm.getObject(cache, key);
         if (list == null) {
-          list = delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+          list = load(ms, parameterObject, rowBounds, key, boundSql, cache);
           tcm.putObject(cache, key, list); // issue #578 and #116
         }
         return list;
@@ -164,6 +186,42 @@ public class CachingExecutor implements Executor {
     delegate.clearLocalCache();
   }
 
+  private <E> List<E> queryByTable(MappedStatement ms, Object parameterObject, RowBounds rowBounds, CacheKey key,
+      BoundSql boundSql, Cache cache) throws SQLException {
+    Set<String> tables = ms.getTables(boundSql);
+    if (tcm.isInvalidated(tables)) {
+      // this transaction wrote what the cached entry was read from
+      return delegate.query(ms, parameterObject, rowBounds, null, key, boundSql);
+    }
+    @SuppressWarnings("unchecked")
+    List<E> list = (List<E>) tcm.getObject(cache, key);
+    if (list == null) {
+      list = load(ms, parameterObject, rowBounds, key, boundSql, cache);
+      tcm.putObject(cache, key, list, tables);
+    }
+    return list;
+  }
+
+  private <E> List<E> load(MappedStatement ms, Object parameterObject, RowBounds rowBounds, CacheKey key,
+      BoundSql boundSql, Cache cache) throws SQLException {
+    CacheMetrics metrics = ms.getConfiguration().getCacheMetrics(cache.getId());
+    if (metrics == null) {
+      return delegate.query(ms, parameterObject, rowBounds, null, key, boundSql);
+    }
+    long start = System.nanoTime();
+    List<E> list = delegate.query(ms, parameterObject, rowBounds, null, key, boundSql);
+    metrics.recordLoad(System.nanoTime() - start);
+    return list;
+  }
+
+  private void invalidateTablesIfRequired(MappedStatement ms, Object parameterObject) {
+    if (ms.isFlushCacheRequired()) {
+      // static and declared tables are known without building the SQL, which the statement handler builds again
+      // anyway since a selectKey may change the parameter first
+      tcm.invalidate(ms.getTablesFor(parameterObject));
+    }
+  }
+
   private void flushCacheIfRequired(MappedStatement ms) {
     Cache cache = ms.getCache();
     if (cache != null && ms.isFlushCacheRequired()) {
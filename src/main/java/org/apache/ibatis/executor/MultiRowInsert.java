@@ -0,0 +1,185 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * The batched calls of a single row {@code INSERT ... VALUES (...)} statement, executed by the {@link BatchExecutor}
+ * as multi row inserts.
+ * <p>
+ * Rows are sent in chunks whose sizes are powers of two not greater than the configured maximum, so a statement
+ * never produces more than a handful of distinct SQL strings whatever the number of rows.
+ */
+class MultiRowInsert {
+
+  private static final Pattern INSERT_PATTERN = Pattern.compile(
+      "^\\s*insert\\s+into\\s+[^\\s(]+\\s*(\\([^)]*\\)\\s*)?values\\s*(?=\\()", Pattern.CASE_INSENSITIVE);
+  private static final String ROW_PARAMETER_PREFIX = "__row";
+
+  private final MappedStatement mappedStatement;
+  private final String prefix;
+  private final String row;
+  private final List<ParameterMapping> parameterMappings;
+  private final List<Object[]> rows = new ArrayList<>();
+  private final Map<Integer, List<ParameterMapping>> chunkParameterMappings = new HashMap<>();
+
+  private MultiRowInsert(MappedStatement mappedStatement, String prefix, String row, List<ParameterMapping> parameterMappings) {
+    this.mappedStatement = mappedStatement;
+    this.prefix = prefix;
+    this.row = row;
+    this.parameterMappings = parameterMappings;
+  }
+
+  /**
+   * Returns a multi row insert for the statement, or null if its SQL cannot be rewritten.
+   */
+  static MultiRowInsert of(MappedStatement ms, BoundSql boundSql) {
+    if (ms.getSqlCommandType() != SqlCommandType.INSERT || ms.getStatementType() != StatementType.PREPARED) {
+      return null;
+    }
+    // keys are read back from the multi row statement, but a select key runs once per row
+    Class<?> keyGeneratorType = ms.getKeyGenerator().getClass();
+    if (!Jdbc3KeyGenerator.class.equals(keyGeneratorType) && !NoKeyGenerator.class.equals(keyGeneratorType)) {
+      return null;
+    }
+    for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+      if (parameterMapping.getMode() != ParameterMode.IN) {
+        return null;
+      }
+    }
+    String sql = boundSql.getSql();
+    Matcher matcher = INSERT_PATTERN.matcher(sql);
+    if (!matcher.find()) {
+      return null;
+    }
+    int start = matcher.end();
+    int end = findRowEnd(sql, start);
+    if (end < 0 || !sql.substring(end).trim().isEmpty()) {
+      // not a single row, or followed by other clauses
+      return null;
+    }
+    return new MultiRowInsert(ms, sql.substring(0, start), sql.substring(start, end), boundSql.getParameterMappings());
+  }
+
+  /**
+   * Returns the index following the parenthesis closing the one at {@code start}, or -1.
+   */
+  private static int findRowEnd(String sql, int start) {
+    int depth = 0;
+    char quote = 0;
+    for (int i = start; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"') {
+        quote = c;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')' && --depth == 0) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  void addRow(Object[] values) {
+    rows.add(values);
+  }
+
+  int size() {
+    return rows.size();
+  }
+
+  MappedStatement getMappedStatement() {
+    return mappedStatement;
+  }
+
+  /**
+   * Splits the rows into chunks, largest first.
+   *
+   * @param maxChunkSize the maximum number of rows of a chunk
+   * @return the number of rows of each chunk
+   */
+  List<Integer> chunkSizes(int maxChunkSize) {
+    List<Integer> sizes = new ArrayList<>();
+    int remaining = rows.size();
+    for (int size = Integer.highestOneBit(maxChunkSize); size > 0; size >>= 1) {
+      while (remaining >= size) {
+        sizes.add(size);
+        remaining -= size;
+      }
+    }
+    return sizes;
+  }
+
+  /**
+   * Builds the SQL and parameters inserting {@code count} rows from {@code from}.
+   */
+  BoundSql chunk(Configuration configuration, int from, int count) {
+    StringBuilder sql = new StringBuilder(prefix.length() + count * (row.length() + 2)).append(prefix).append(row);
+    for (int i = 1; i < count; i++) {
+      sql.append(", ").append(row);
+    }
+    List<ParameterMapping> mappings = chunkParameterMappings.computeIfAbsent(count, k -> buildParameterMappings(configuration, k));
+    BoundSql boundSql = new BoundSql(configuration, sql.toString(), mappings, null);
+    for (int i = 0; i < count; i++) {
+      Object[] values = rows.get(from + i);
+      for (int j = 0; j < values.length; j++) {
+        boundSql.setAdditionalParameter(parameterName(i, j), values[j]);
+      }
+    }
+    return boundSql;
+  }
+
+  private List<ParameterMapping> buildParameterMappings(Configuration configuration, int count) {
+    List<ParameterMapping> mappings = new ArrayList<>(count * parameterMappings.size());
+    for (int i = 0; i < count; i++) {
+      for (int j = 0; j < parameterMappings.size(); j++) {
+        ParameterMapping mapping = parameterMappings.get(j);
+        mappings.add(new ParameterMapping.Builder(configuration, parameterName(i, j), mapping.getTypeHandler())
+            .javaType(mapping.getJavaType())
+            .jdbcType(mapping.getJdbcType())
+            .jdbcTypeName(mapping.getJdbcTypeName())
+            .numericScale(mapping.getNumericScale())
+            .build());
+      }
+    }
+    return mappings;
+  }
+
+  private static String parameterName(int row, int column) {
+    return ROW_PARAMETER_PREFIX + row + "_" + column;
+  }
+
+}
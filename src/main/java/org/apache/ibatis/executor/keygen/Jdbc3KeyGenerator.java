@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.executor.keygen;
 
+import java.lang.reflect.InvocationTargetException;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -35,6 +36,8 @@ import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.reflection.ArrayUtil;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.defaults.DefaultSqlSession.StrictMap;
 import org.apache.ibatis.type.JdbcType;
@@ -233,6 +236,9 @@ public class Jdbc3KeyGenerator implements KeyGenerator {
     private final String paramName;
     private final String propertyName;
     private TypeHandler<?> typeHandler;
+    // the setter of a plain bean property, resolved once for all the rows of a batch
+    private Class<?> setterOwner;
+    private Invoker setter;
 
     protected KeyAssigner(Configuration configuration, ResultSetMetaData rsmd, int columnPosition, String paramName,
         String propertyName) {
@@ -250,13 +256,18 @@ public class Jdbc3KeyGenerator implements KeyGenerator {
         // If paramName is set, param is ParamMap
         param = ((ParamMap<?>) param).get(paramName);
       }
-      MetaObject metaParam = configuration.newMetaObject(param);
       try {
+        if (param != null && (param.getClass() == setterOwner || resolveSetter(param))) {
+          if (typeHandler != null) {
+            setter.invoke(param, new Object[] { typeHandler.getResult(rs, columnPosition) });
+          }
+          return;
+        }
+        MetaObject metaParam = configuration.newMetaObject(param);
         if (typeHandler == null) {
           if (metaParam.hasSetter(propertyName)) {
             Class<?> propertyType = metaParam.getSetterType(propertyName);
-            typeHandler = typeHandlerRegistry.getTypeHandler(propertyType,
-                JdbcType.forCode(rsmd.getColumnType(columnPosition)));
+            typeHandler = resolveTypeHandler(propertyType);
           } else {
             throw new ExecutorException("No setter found for the keyProperty '" + propertyName + "' in '"
                 + metaParam.getOriginalObject().getClass().getName() + "'.");
@@ -268,10 +279,31 @@ public class Jdbc3KeyGenerator implements KeyGenerator {
           Object value = typeHandler.getResult(rs, columnPosition);
           metaParam.setValue(propertyName, value);
         }
-      } catch (SQLException e) {
+      } catch (SQLException | IllegalAccessException | InvocationTargetException e) {
         throw new ExecutorException("Error getting generated key or setting result to parameter object. Cause: " + e,
             e);
       }
     }
+
+    private boolean resolveSetter(Object param) throws SQLException {
+      if (propertyName.indexOf('.') != -1 || param instanceof Map
+          || configuration.getObjectWrapperFactory().hasWrapperFor(param)) {
+        return false;
+      }
+      Reflector reflector = configuration.getReflectorFactory().findForClass(param.getClass());
+      if (!reflector.hasSetter(propertyName)) {
+        return false;
+      }
+      setterOwner = param.getClass();
+      setter = reflector.getSetInvoker(propertyName);
+      if (typeHandler == null) {
+        typeHandler = resolveTypeHandler(reflector.getSetterType(propertyName));
+      }
+      return true;
+    }
+
+    private TypeHandler<?> resolveTypeHandler(Class<?> propertyType) throws SQLException {
+      return typeHandlerRegistry.getTypeHandler(propertyType, JdbcType.forCode(rsmd.getColumnType(columnPosition)));
+    }
   }
 }
@@ -17,11 +17,17 @@ package org.apache.ibatis.executor.keygen;
 
 import java.sql.Statement;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.RowBounds;
@@ -35,10 +41,39 @@ public class SelectKeyGenerator implements KeyGenerator {
   public static final String SELECT_KEY_SUFFIX = "!selectKey";
   private final boolean executeBefore;
   private final MappedStatement keyStatement;
+  private final boolean prefetch;
+  // keys returned by a prefetching statement and not handed out yet, shared by all sessions
+  private final Queue<Object> prefetchedKeys = new ConcurrentLinkedQueue<>();
 
   public SelectKeyGenerator(MappedStatement keyStatement, boolean executeBefore) {
+    this(keyStatement, executeBefore, false);
+  }
+
+  /**
+   * @param keyStatement the statement selecting the key
+   * @param executeBefore whether the key is selected before the insert
+   * @param prefetch whether the statement returns a block of keys, such as several sequence values, that are
+   *        handed out one per insert before it is executed again. Only used when {@code executeBefore} is true.
+   *        The keys are shared by all sessions and parameters, so the statement must be static and have no parameter.
+   * @throws BuilderException if keys are prefetched by a statement that depends on the parameter of the insert
+   * @since 3.5.3
+   */
+  public SelectKeyGenerator(MappedStatement keyStatement, boolean executeBefore, boolean prefetch) {
     this.executeBefore = executeBefore;
     this.keyStatement = keyStatement;
+    this.prefetch = prefetch && executeBefore;
+    if (this.prefetch && dependsOnParameter(keyStatement)) {
+      throw new BuilderException("Cannot prefetch the keys of '" + keyStatement.getId()
+          + "' because its SQL is dynamic or has parameters, while prefetched keys are shared by all inserts.");
+    }
+  }
+
+  private static boolean dependsOnParameter(MappedStatement keyStatement) {
+    SqlSource sqlSource = keyStatement.getSqlSource();
+    if (!(sqlSource instanceof RawSqlSource) && !(sqlSource instanceof StaticSqlSource)) {
+      return true;
+    }
+    return !sqlSource.getBoundSql(null).getParameterMappings().isEmpty();
   }
 
   @Override
@@ -62,27 +97,35 @@ public class SelectKeyGenerator implements KeyGenerator {
         final Configuration configuration = ms.getConfiguration();
         final MetaObject metaParam = configuration.newMetaObject(parameter);
         if (keyProperties != null) {
-          // Do not close keyExecutor.
-          // The transaction will be closed by parent executor.
-          Executor keyExecutor = configuration.newExecutor(executor.getTransaction(), ExecutorType.SIMPLE);
-          List<Object> values = keyExecutor.query(keyStatement, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
-          if (values.size() == 0) {
-            throw new ExecutorException("SelectKey returned no data.");
-          } else if (values.size() > 1) {
-            throw new ExecutorException("SelectKey returned more than one value.");
-          } else {
-            MetaObject metaResult = configuration.newMetaObject(values.get(0));
-            if (keyProperties.length == 1) {
-              if (metaResult.hasGetter(keyProperties[0])) {
-                setValue(metaParam, keyProperties[0], metaResult.getValue(keyProperties[0]));
-              } else {
-                // no getter for the property - maybe just a single value object
-                // so try that
-                setValue(metaParam, keyProperties[0], values.get(0));
+          Object key = prefetch ? prefetchedKeys.poll() : null;
+          if (key == null) {
+            // Do not close keyExecutor.
+            // The transaction will be closed by parent executor.
+            Executor keyExecutor = configuration.newExecutor(executor.getTransaction(), ExecutorType.SIMPLE);
+            List<Object> values = keyExecutor.query(keyStatement, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+            if (values.size() == 0) {
+              throw new ExecutorException("SelectKey returned no data.");
+            } else if (values.size() > 1 && !prefetch) {
+              throw new ExecutorException("SelectKey returned more than one value.");
+            }
+            key = values.get(0);
+            for (int i = 1; i < values.size(); i++) {
+              if (values.get(i) != null) {
+                prefetchedKeys.add(values.get(i));
               }
+            }
+          }
+          MetaObject metaResult = configuration.newMetaObject(key);
+          if (keyProperties.length == 1) {
+            if (metaResult.hasGetter(keyProperties[0])) {
+              setValue(metaParam, keyProperties[0], metaResult.getValue(keyProperties[0]));
             } else {
-              handleMultipleProperties(keyProperties, metaParam, metaResult);
+              // no getter for the property - maybe just a single value object
+              // so try that
+              setValue(metaParam, keyProperties[0], key);
             }
+          } else {
+            handleMultipleProperties(keyProperties, metaParam, metaResult);
           }
         }
       }
@@ -0,0 +1,139 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ResultExtractor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.defaults.DefaultSqlSession.StrictMap;
+
+/**
+ * Loads the nested select of one result mapping for many parent rows at once.
+ * <p>
+ * The keys of the parent rows are collected with {@link #addKey(Object)}. When the value of a key is requested, the
+ * {@code batchSelect} statement of the mapping runs once for that key and up to {@code batchSize - 1} other pending
+ * keys, which it receives as a list named {@code list} (and {@code collection}). The returned objects are distributed
+ * back by the value of their {@code batchKey} property; a key without any object gets an empty result.
+ *
+ * @since 3.5.3
+ */
+public class BatchResultLoader {
+
+  private final Configuration configuration;
+  private final Executor executor;
+  private final MappedStatement batchQuery;
+  private final String batchKey;
+  private final Class<?> targetType;
+  private final int batchSize;
+  private final ResultExtractor resultExtractor;
+  private final long creatorThreadId;
+
+  private final Set<Object> pendingKeys = new LinkedHashSet<>();
+  private final Map<Object, List<Object>> results = new HashMap<>();
+
+  public BatchResultLoader(Configuration configuration, Executor executor, MappedStatement batchQuery, String batchKey,
+      Class<?> targetType, int batchSize) {
+    this.configuration = configuration;
+    this.executor = executor;
+    this.batchQuery = batchQuery;
+    this.batchKey = batchKey;
+    this.targetType = targetType;
+    this.batchSize = Math.max(1, batchSize);
+    this.resultExtractor = new ResultExtractor(configuration, configuration.getObjectFactory());
+    this.creatorThreadId = Thread.currentThread().getId();
+  }
+
+  public synchronized void addKey(Object key) {
+    final Object normalizedKey = normalizeKey(key);
+    if (!results.containsKey(normalizedKey)) {
+      pendingKeys.add(normalizedKey);
+    }
+  }
+
+  /**
+   * Returns the nested result of a key, loading it together with other pending keys if needed.
+   *
+   * @param key the parameter of the nested select for a parent row
+   * @return the nested result, converted to the type of the property
+   * @throws SQLException if the batch select fails
+   */
+  public synchronized Object loadResult(Object key) throws SQLException {
+    final Object normalizedKey = normalizeKey(key);
+    if (!results.containsKey(normalizedKey)) {
+      final List<Object> keys = new ArrayList<>(Math.min(batchSize, pendingKeys.size() + 1));
+      keys.add(normalizedKey);
+      pendingKeys.remove(normalizedKey);
+      for (Iterator<Object> iterator = pendingKeys.iterator(); keys.size() < batchSize && iterator.hasNext();) {
+        keys.add(iterator.next());
+        iterator.remove();
+      }
+      load(keys);
+    }
+    return resultExtractor.extractObjectFromList(results.get(normalizedKey), targetType);
+  }
+
+  private void load(List<Object> keys) throws SQLException {
+    for (Object key : keys) {
+      results.put(key, new ArrayList<>());
+    }
+    for (Object object : selectList(keys)) {
+      final Object key = normalizeKey(configuration.newMetaObject(object).getValue(batchKey));
+      results.computeIfAbsent(key, k -> new ArrayList<>()).add(object);
+    }
+  }
+
+  private List<Object> selectList(List<Object> keys) throws SQLException {
+    final StrictMap<Object> parameterObject = new StrictMap<>();
+    parameterObject.put("collection", Collections.unmodifiableList(keys));
+    parameterObject.put("list", Collections.unmodifiableList(keys));
+    Executor localExecutor = executor;
+    if (Thread.currentThread().getId() != this.creatorThreadId || localExecutor.isClosed()) {
+      localExecutor = ResultLoader.newExecutor(configuration);
+    }
+    try {
+      final BoundSql boundSql = batchQuery.getBoundSql(parameterObject);
+      final CacheKey cacheKey = localExecutor.createCacheKey(batchQuery, parameterObject, RowBounds.DEFAULT, boundSql);
+      return localExecutor.query(batchQuery, parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, cacheKey, boundSql);
+    } finally {
+      if (localExecutor != executor) {
+        localExecutor.close(false);
+      }
+    }
+  }
+
+  private static Object normalizeKey(Object key) {
+    // the key read from the parent row and the batchKey property of the child may use different integer types
+    if (key instanceof Integer || key instanceof Long || key instanceof Short || key instanceof Byte) {
+      return ((Number) key).longValue();
+    }
+    return key;
+  }
+
+}
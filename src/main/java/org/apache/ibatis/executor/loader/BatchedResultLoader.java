@@ -0,0 +1,50 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import java.sql.SQLException;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * A lazy loader that takes its value from a {@link BatchResultLoader}, so that triggering the property of one
+ * parent also loads the same property of other parents of the same result.
+ * <p>
+ * The nested select of the row is kept so that a deserialized proxy can still load the property on its own.
+ *
+ * @since 3.5.3
+ */
+public class BatchedResultLoader extends ResultLoader {
+
+  private final BatchResultLoader batchResultLoader;
+
+  public BatchedResultLoader(Configuration config, Executor executor, MappedStatement mappedStatement, Object parameterObject,
+      Class<?> targetType, CacheKey cacheKey, BoundSql boundSql, BatchResultLoader batchResultLoader) {
+    super(config, executor, mappedStatement, parameterObject, targetType, cacheKey, boundSql);
+    this.batchResultLoader = batchResultLoader;
+  }
+
+  @Override
+  public Object loadResult() throws SQLException {
+    resultObject = batchResultLoader.loadResult(parameterObject);
+    return resultObject;
+  }
+
+}
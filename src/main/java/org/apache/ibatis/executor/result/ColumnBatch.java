@@ -0,0 +1,234 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A chunk of consecutive rows stored column by column.
+ * <p>
+ * Integral columns of up to 32 bits are kept in an {@code int[]}, BIGINT columns in a {@code long[]} and
+ * floating point columns in a {@code double[]}, so reading them allocates nothing per row. Any other column
+ * is kept in an {@code Object[]}. Each column also has a null bitmap; the primitive value of a null cell is 0.
+ * <p>
+ * A batch is reused for the next rows once the {@link org.apache.ibatis.session.ColumnBatchHandler} returns,
+ * so its content must be copied if it is needed later.
+ *
+ * @since 3.5.3
+ */
+public class ColumnBatch {
+
+  public enum ColumnType {
+    INT, LONG, DOUBLE, OBJECT
+  }
+
+  private final String[] columnNames;
+  private final ColumnType[] columnTypes;
+  private final int capacity;
+  private final int[][] ints;
+  private final long[][] longs;
+  private final double[][] doubles;
+  private final Object[][] objects;
+  private final long[][] nulls;
+  private int rowCount;
+
+  public ColumnBatch(List<String> columnNames, List<ColumnType> columnTypes, int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("The capacity of a column batch must be positive but was " + capacity);
+    }
+    final int columnCount = columnNames.size();
+    this.columnNames = columnNames.toArray(new String[columnCount]);
+    this.columnTypes = columnTypes.toArray(new ColumnType[columnCount]);
+    this.capacity = capacity;
+    this.ints = new int[columnCount][];
+    this.longs = new long[columnCount][];
+    this.doubles = new double[columnCount][];
+    this.objects = new Object[columnCount][];
+    this.nulls = new long[columnCount][(capacity + 63) >>> 6];
+    for (int i = 0; i < columnCount; i++) {
+      switch (this.columnTypes[i]) {
+        case INT:
+          ints[i] = new int[capacity];
+          break;
+        case LONG:
+          longs[i] = new long[capacity];
+          break;
+        case DOUBLE:
+          doubles[i] = new double[capacity];
+          break;
+        default:
+          objects[i] = new Object[capacity];
+      }
+    }
+  }
+
+  public int getColumnCount() {
+    return columnNames.length;
+  }
+
+  public String getColumnName(int column) {
+    return columnNames[column];
+  }
+
+  /**
+   * Finds a column by name, ignoring case.
+   *
+   * @param columnName the column name or label
+   * @return the column index, starting at 0, or -1 if there is no such column
+   */
+  public int getColumnIndex(String columnName) {
+    for (int i = 0; i < columnNames.length; i++) {
+      if (columnNames[i].equalsIgnoreCase(columnName)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public ColumnType getColumnType(int column) {
+    return columnTypes[column];
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public boolean isNull(int column, int row) {
+    checkRow(row);
+    return (nulls[column][row >>> 6] & (1L << row)) != 0;
+  }
+
+  public int getInt(int column, int row) {
+    checkRow(row);
+    return getIntColumn(column)[row];
+  }
+
+  public long getLong(int column, int row) {
+    checkRow(row);
+    return getLongColumn(column)[row];
+  }
+
+  public double getDouble(int column, int row) {
+    checkRow(row);
+    return getDoubleColumn(column)[row];
+  }
+
+  public Object getObject(int column, int row) {
+    checkRow(row);
+    switch (columnTypes[column]) {
+      case INT:
+        return isNull(column, row) ? null : ints[column][row];
+      case LONG:
+        return isNull(column, row) ? null : longs[column][row];
+      case DOUBLE:
+        return isNull(column, row) ? null : doubles[column][row];
+      default:
+        return objects[column][row];
+    }
+  }
+
+  /**
+   * Returns the backing array of an {@link ColumnType#INT} column. Only the first {@link #getRowCount()} values are valid.
+   */
+  public int[] getIntColumn(int column) {
+    return checkType(ints[column], column, ColumnType.INT);
+  }
+
+  /**
+   * Returns the backing array of a {@link ColumnType#LONG} column. Only the first {@link #getRowCount()} values are valid.
+   */
+  public long[] getLongColumn(int column) {
+    return checkType(longs[column], column, ColumnType.LONG);
+  }
+
+  /**
+   * Returns the backing array of a {@link ColumnType#DOUBLE} column. Only the first {@link #getRowCount()} values are valid.
+   */
+  public double[] getDoubleColumn(int column) {
+    return checkType(doubles[column], column, ColumnType.DOUBLE);
+  }
+
+  /**
+   * Returns the backing array of an {@link ColumnType#OBJECT} column. Only the first {@link #getRowCount()} values are valid.
+   */
+  public Object[] getObjectColumn(int column) {
+    return checkType(objects[column], column, ColumnType.OBJECT);
+  }
+
+  /**
+   * Returns the null bitmap of a column: bit {@code row % 64} of word {@code row / 64} is set when the cell is null.
+   */
+  public long[] getNullBitmap(int column) {
+    return nulls[column];
+  }
+
+  boolean isFull() {
+    return rowCount == capacity;
+  }
+
+  void setInt(int column, int value) {
+    ints[column][rowCount] = value;
+  }
+
+  void setLong(int column, long value) {
+    longs[column][rowCount] = value;
+  }
+
+  void setDouble(int column, double value) {
+    doubles[column][rowCount] = value;
+  }
+
+  void setObject(int column, Object value) {
+    objects[column][rowCount] = value;
+  }
+
+  void setNull(int column) {
+    nulls[column][rowCount >>> 6] |= 1L << rowCount;
+  }
+
+  void nextRow() {
+    rowCount++;
+  }
+
+  void clear() {
+    for (int i = 0; i < columnTypes.length; i++) {
+      Arrays.fill(nulls[i], 0L);
+      if (objects[i] != null) {
+        Arrays.fill(objects[i], 0, rowCount, null);
+      }
+    }
+    rowCount = 0;
+  }
+
+  private void checkRow(int row) {
+    if (row < 0 || row >= rowCount) {
+      throw new IndexOutOfBoundsException("Row " + row + " is out of the " + rowCount + " rows of this batch");
+    }
+  }
+
+  private <A> A checkType(A values, int column, ColumnType type) {
+    if (values == null) {
+      throw new IllegalStateException("Column '" + columnNames[column] + "' is of type " + columnTypes[column] + ", not " + type);
+    }
+    return values;
+  }
+
+}
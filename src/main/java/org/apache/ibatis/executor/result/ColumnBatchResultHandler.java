@@ -0,0 +1,135 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.result.ColumnBatch.ColumnType;
+import org.apache.ibatis.session.ColumnBatchHandler;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.type.DoubleResultGetter;
+import org.apache.ibatis.type.IntResultGetter;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.LongResultGetter;
+import org.apache.ibatis.type.ObjectTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.apache.ibatis.type.UnknownTypeHandler;
+
+/**
+ * Result handler used by {@link org.apache.ibatis.session.SqlSession#selectColumnar} to read result sets into
+ * {@link ColumnBatch}es instead of mapping them.
+ * <p>
+ * The result set handler hands it the raw result sets. Each column is read with the type handler registered for its
+ * JDBC type. Handlers implementing {@link IntResultGetter}, {@link LongResultGetter} or {@link DoubleResultGetter}
+ * fill a primitive column; any other handler fills an object column.
+ *
+ * @since 3.5.3
+ */
+public class ColumnBatchResultHandler implements ResultHandler<Object> {
+
+  private final int batchSize;
+  private final ColumnBatchHandler handler;
+
+  public ColumnBatchResultHandler(int batchSize, ColumnBatchHandler handler) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("The batch size must be positive but was " + batchSize);
+    }
+    this.batchSize = batchSize;
+    this.handler = handler;
+  }
+
+  @Override
+  public void handleResult(ResultContext<?> context) {
+    throw new ExecutorException("Columnar selects must be handled by the DefaultResultSetHandler.");
+  }
+
+  /**
+   * Reads the rows of a result set positioned before its first row to read.
+   *
+   * @param rs the result set
+   * @param columnNames the column names or labels
+   * @param jdbcTypes the JDBC types of the columns
+   * @param typeHandlerRegistry the registry to take the type handlers from
+   * @param limit the maximum number of rows to read
+   * @throws SQLException if a column cannot be read
+   */
+  public void handleResultSet(ResultSet rs, List<String> columnNames, List<JdbcType> jdbcTypes, TypeHandlerRegistry typeHandlerRegistry, int limit)
+      throws SQLException {
+    final int columnCount = columnNames.size();
+    final List<ColumnType> columnTypes = new ArrayList<>(columnCount);
+    final TypeHandler<?>[] typeHandlers = new TypeHandler<?>[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      TypeHandler<?> typeHandler = jdbcTypes.get(i) == null ? null : typeHandlerRegistry.getTypeHandler(jdbcTypes.get(i));
+      if (typeHandler == null || typeHandler instanceof UnknownTypeHandler) {
+        typeHandler = new ObjectTypeHandler();
+      }
+      typeHandlers[i] = typeHandler;
+      columnTypes.add(typeHandler instanceof IntResultGetter ? ColumnType.INT
+          : typeHandler instanceof LongResultGetter ? ColumnType.LONG
+          : typeHandler instanceof DoubleResultGetter ? ColumnType.DOUBLE
+          : ColumnType.OBJECT);
+    }
+    final ColumnBatch batch = new ColumnBatch(columnNames, columnTypes, batchSize);
+    int count = 0;
+    while (count < limit && rs.next()) {
+      for (int i = 0; i < columnCount; i++) {
+        readColumn(rs, batch, i, columnTypes.get(i), typeHandlers[i]);
+      }
+      batch.nextRow();
+      count++;
+      if (batch.isFull()) {
+        handler.handleBatch(batch);
+        batch.clear();
+      }
+    }
+    if (batch.getRowCount() > 0) {
+      handler.handleBatch(batch);
+      batch.clear();
+    }
+  }
+
+  private void readColumn(ResultSet rs, ColumnBatch batch, int column, ColumnType type, TypeHandler<?> typeHandler) throws SQLException {
+    final int columnIndex = column + 1;
+    switch (type) {
+      case INT:
+        batch.setInt(column, ((IntResultGetter) typeHandler).getIntResult(rs, columnIndex));
+        break;
+      case LONG:
+        batch.setLong(column, ((LongResultGetter) typeHandler).getLongResult(rs, columnIndex));
+        break;
+      case DOUBLE:
+        batch.setDouble(column, ((DoubleResultGetter) typeHandler).getDoubleResult(rs, columnIndex));
+        break;
+      default:
+        Object value = typeHandler.getResult(rs, columnIndex);
+        batch.setObject(column, value);
+        if (value == null) {
+          batch.setNull(column);
+        }
+        return;
+    }
+    if (rs.wasNull()) {
+      batch.setNull(column);
+    }
+  }
+
+}
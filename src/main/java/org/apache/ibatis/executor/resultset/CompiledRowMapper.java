@@ -0,0 +1,164 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.reflect.Constructor;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Maps the rows of one result set to a simple result map without going through {@code MetaObject}.
+ * <p>
+ * Everything that the regular mapping resolves for each column of each row (the columns to read, their type
+ * handlers, the setter invokers and the constructor) is resolved once by {@link DefaultResultSetHandler} when
+ * the result map is first applied to the result set, so mapping a row only reads the columns and invokes the
+ * setters. The rules for nulls and empty rows are the same as the regular mapping.
+ *
+ * @since 3.5.3
+ */
+final class CompiledRowMapper {
+
+  private final Class<?> type;
+  private final ObjectFactory objectFactory;
+  private final Constructor<?> constructor;
+  private final List<Class<?>> constructorArgTypes;
+  private final ConstructorArg[] constructorArgs;
+  private final PropertySetter[] setters;
+  private final boolean callSettersOnNulls;
+  private final boolean returnInstanceForEmptyRow;
+
+  CompiledRowMapper(Class<?> type, ObjectFactory objectFactory, List<Class<?>> constructorArgTypes, List<ConstructorArg> constructorArgs,
+      List<PropertySetter> setters, boolean callSettersOnNulls, boolean returnInstanceForEmptyRow) {
+    this.type = type;
+    this.objectFactory = objectFactory;
+    this.constructorArgTypes = constructorArgTypes;
+    this.constructorArgs = constructorArgs.toArray(new ConstructorArg[0]);
+    this.setters = setters.toArray(new PropertySetter[0]);
+    this.callSettersOnNulls = callSettersOnNulls;
+    this.returnInstanceForEmptyRow = returnInstanceForEmptyRow;
+    this.constructor = objectFactory.getClass() == DefaultObjectFactory.class ? resolveConstructor(type, constructorArgTypes) : null;
+  }
+
+  Object map(ResultSet rs) throws SQLException {
+    boolean foundValues = false;
+    final Object rowValue;
+    if (constructorArgs.length == 0) {
+      rowValue = newInstance(null);
+    } else {
+      final Object[] args = new Object[constructorArgs.length];
+      for (int i = 0; i < args.length; i++) {
+        args[i] = constructorArgs[i].getValue(rs);
+        foundValues = args[i] != null || foundValues;
+      }
+      if (!foundValues) {
+        return null;
+      }
+      rowValue = newInstance(args);
+    }
+    for (PropertySetter setter : setters) {
+      final Object value = setter.typeHandler.getResult(rs, setter.column);
+      if (value != null) {
+        foundValues = true;
+      }
+      if (value != null || (callSettersOnNulls && !setter.primitive)) {
+        // gcode issue #377, call setter on nulls (value is not 'found')
+        setter.set(rowValue, value);
+      }
+    }
+    return foundValues || returnInstanceForEmptyRow ? rowValue : null;
+  }
+
+  private Object newInstance(Object[] args) {
+    if (constructor == null) {
+      return args == null ? objectFactory.create(type) : objectFactory.create(type, constructorArgTypes, Arrays.asList(args));
+    }
+    try {
+      return args == null ? constructor.newInstance() : constructor.newInstance(args);
+    } catch (Exception e) {
+      throw new ReflectionException("Error instantiating " + type + " with values " + Arrays.toString(args) + ". Cause: " + e, e);
+    }
+  }
+
+  private static Constructor<?> resolveConstructor(Class<?> type, List<Class<?>> constructorArgTypes) {
+    try {
+      final Constructor<?> constructor = type.getDeclaredConstructor(constructorArgTypes.toArray(new Class<?>[0]));
+      if (Reflector.canControlMemberAccessible()) {
+        constructor.setAccessible(true);
+      }
+      return constructor;
+    } catch (NoSuchMethodException | SecurityException e) {
+      // let the object factory report the problem
+      return null;
+    }
+  }
+
+  static class ConstructorArg {
+    private final ResultMapping mapping;
+    private final TypeHandler<?> typeHandler;
+
+    ConstructorArg(ResultMapping mapping) {
+      this.mapping = mapping;
+      this.typeHandler = mapping.getTypeHandler();
+    }
+
+    private Object getValue(ResultSet rs) {
+      try {
+        return typeHandler.getResult(rs, mapping.getColumn());
+      } catch (ResultMapException | SQLException e) {
+        throw new ExecutorException("Could not process result for mapping: " + mapping, e);
+      }
+    }
+  }
+
+  static class PropertySetter {
+    private final String column;
+    private final String property;
+    private final TypeHandler<?> typeHandler;
+    private final Invoker invoker;
+    private final boolean primitive;
+
+    PropertySetter(String column, String property, TypeHandler<?> typeHandler, Invoker invoker, boolean primitive) {
+      this.column = column;
+      this.property = property;
+      this.typeHandler = typeHandler;
+      this.invoker = invoker;
+      this.primitive = primitive;
+    }
+
+    private void set(Object target, Object value) {
+      try {
+        invoker.invoke(target, new Object[] {value});
+      } catch (Throwable t) {
+        Throwable cause = ExceptionUtil.unwrapThrowable(t);
+        throw new ReflectionException("Could not set property '" + property + "' of '" + target.getClass() + "' with value '" + value + "' Cause: " + cause.toString(), cause);
+      }
+    }
+  }
+
+}
@@ -21,11 +21,14 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import org.apache.ibatis.annotations.AutomapConstructor;
@@ -33,15 +36,20 @@ import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.cursor.defaults.DefaultCursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.loader.BatchResultLoader;
+import org.apache.ibatis.executor.loader.BatchedResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.result.ColumnBatchResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
 import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.executor.statement.AdaptiveFetchSize;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -53,8 +61,11 @@ import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.FetchSizePolicy;
+import org.apache.ibatis.session.NestedResultStreaming;
 import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -82,18 +93,25 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final TypeHandlerRegistry typeHandlerRegistry;
   private final ObjectFactory objectFactory;
   private final ReflectorFactory reflectorFactory;
+  private final boolean resultOrdered;
 
   // nested resultmaps
   private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
   private final Map<String, Object> ancestorObjects = new HashMap<>();
   private Object previousRowValue;
+  private final Set<CacheKey> completedRowKeys;
 
   // multiple resultsets
   private final Map<String, ResultMapping> nextResultMaps = new HashMap<>();
   private final Map<CacheKey, List<PendingRelation>> pendingRelations = new HashMap<>();
 
-  // Cached Automappings
-  private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
+  // batched nested selects, by mapping instance since mappings of different result maps are equal when their properties are
+  private final Map<ResultMapping, BatchResultLoader> batchResultLoaders = new IdentityHashMap<>();
+  private final List<PendingBatchLoad> pendingBatchLoads = new ArrayList<>();
+  private boolean batchLoadingAllowed;
+
+  // rows read, to adapt the fetch size of the statement
+  private int rowCount;
 
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
@@ -103,7 +121,21 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     public ResultMapping propertyMapping;
   }
 
-  private static class UnMappedColumnAutoMapping {
+  private static class PendingBatchLoad {
+    private final MetaObject metaObject;
+    private final String property;
+    private final BatchResultLoader batchResultLoader;
+    private final Object key;
+
+    PendingBatchLoad(MetaObject metaObject, String property, BatchResultLoader batchResultLoader, Object key) {
+      this.metaObject = metaObject;
+      this.property = property;
+      this.batchResultLoader = batchResultLoader;
+      this.key = key;
+    }
+  }
+
+  static class UnMappedColumnAutoMapping {
     private final String column;
     private final String property;
     private final TypeHandler<?> typeHandler;
@@ -129,6 +161,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     this.objectFactory = configuration.getObjectFactory();
     this.reflectorFactory = configuration.getReflectorFactory();
     this.resultHandler = resultHandler;
+    this.resultOrdered = mappedStatement.isResultOrdered() || configuration.getNestedResultStreaming() != NestedResultStreaming.NONE;
+    this.completedRowKeys = configuration.getNestedResultStreaming() == NestedResultStreaming.VERIFY_ORDERED ? new HashSet<>() : null;
   }
 
   //
@@ -185,6 +219,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
     int resultSetCount = 0;
     ResultSetWrapper rsw = getFirstResultSet(stmt);
+    final int rowWidth = isFetchSizeAdaptive() && rsw != null
+        ? AdaptiveFetchSize.estimateRowWidth(rsw.getResultSet().getMetaData()) : 0;
 
     List<ResultMap> resultMaps = mappedStatement.getResultMaps();
     int resultMapCount = resultMaps.size();
@@ -212,9 +248,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     }
 
+    if (rowWidth > 0) {
+      configuration.getAdaptiveFetchSize().record(mappedStatement.getId(), stmt.getFetchSize(), rowCount, rowWidth);
+    }
     return collapseSingleResultList(multipleResults);
   }
 
+  private boolean isFetchSizeAdaptive() {
+    return mappedStatement.getFetchSize() == null && configuration.getFetchSizePolicy() == FetchSizePolicy.ADAPTIVE;
+  }
+
   @Override
   public <E> Cursor<E> handleCursorResultSets(Statement stmt) throws SQLException {
     ErrorContext.instance().activity("handling cursor results").object(mappedStatement.getId());
@@ -230,7 +273,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     ResultMap resultMap = resultMaps.get(0);
-    return new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    Cursor<E> cursor = new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    // nested selects and lazy loading would share the executor between the producer and the consumer
+    if (mappedStatement.getCursorPrefetchDepth() > 0 && !resultMap.hasAnyNestedQueries()) {
+      cursor = new PrefetchingCursor<>(cursor, mappedStatement.getCursorPrefetchDepth(), configuration.getAsyncExecutor());
+    }
+    return cursor;
   }
 
   private ResultSetWrapper getFirstResultSet(Statement stmt) throws SQLException {
@@ -298,8 +346,19 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       } else {
         if (resultHandler == null) {
           DefaultResultHandler defaultResultHandler = new DefaultResultHandler(objectFactory);
-          handleRowValues(rsw, resultMap, defaultResultHandler, rowBounds, null);
+          // the rows are only visible once all of them are mapped, so eager nested selects can be batched
+          batchLoadingAllowed = true;
+          try {
+            handleRowValues(rsw, resultMap, defaultResultHandler, rowBounds, null);
+          } finally {
+            batchLoadingAllowed = false;
+          }
+          loadPendingBatches();
           multipleResults.add(defaultResultHandler.getResultList());
+        } else if (resultHandler instanceof ColumnBatchResultHandler) {
+          skipRows(rsw.getResultSet(), rowBounds);
+          ((ColumnBatchResultHandler) resultHandler).handleResultSet(rsw.getResultSet(), rsw.getColumnNames(), rsw.getJdbcTypes(),
+              typeHandlerRegistry, rowBounds.getLimit());
         } else {
           handleRowValues(rsw, resultMap, resultHandler, rowBounds, null);
         }
@@ -337,7 +396,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   }
 
   protected void checkResultHandler() {
-    if (resultHandler != null && configuration.isSafeResultHandlerEnabled() && !mappedStatement.isResultOrdered()) {
+    if (resultHandler != null && configuration.isSafeResultHandlerEnabled() && !resultOrdered) {
       throw new ExecutorException("Mapped Statements with nested result mappings cannot be safely used with a custom ResultHandler. "
           + "Use safeResultHandlerEnabled=false setting to bypass this check "
           + "or ensure your statement returns ordered data and set resultOrdered=true on it.");
@@ -350,6 +409,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ResultSet resultSet = rsw.getResultSet();
     skipRows(resultSet, rowBounds);
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+      rowCount++;
       ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
       Object rowValue = getRowValue(rsw, discriminatedResultMap, null);
       storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
@@ -393,6 +453,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
+    if (columnPrefix == null && configuration.isCompiledRowMappingEnabled()) {
+      final CompiledRowMapper rowMapper = getCompiledRowMapper(rsw, resultMap);
+      if (rowMapper != null) {
+        return rowMapper.map(rsw.getResultSet());
+      }
+    }
     final ResultLoaderMap lazyLoader = new ResultLoaderMap();
     Object rowValue = createResultObject(rsw, resultMap, lazyLoader, columnPrefix);
     if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
@@ -475,6 +541,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private List<UnMappedColumnAutoMapping> createAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
     final String mapKey = resultMap.getId() + ":" + columnPrefix;
+    final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = rsw.getAutoMappings();
     List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
     if (autoMapping == null) {
       autoMapping = new ArrayList<>();
@@ -531,6 +598,99 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
+  //
+  // COMPILED ROW MAPPERS
+  //
+
+  private CompiledRowMapper getCompiledRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    final Map<String, Optional<CompiledRowMapper>> compiledRowMappers = rsw.getCompiledRowMappers();
+    Optional<CompiledRowMapper> rowMapper = compiledRowMappers.get(resultMap.getId());
+    if (rowMapper == null) {
+      rowMapper = Optional.ofNullable(compileRowMapper(rsw, resultMap));
+      compiledRowMappers.put(resultMap.getId(), rowMapper);
+    }
+    return rowMapper.orElse(null);
+  }
+
+  private CompiledRowMapper compileRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    final Class<?> resultType = resultMap.getType();
+    if (resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries()
+        || resultType.isInterface() || resultType.isArray()
+        || Map.class.isAssignableFrom(resultType) || Collection.class.isAssignableFrom(resultType)
+        || configuration.getObjectWrapperFactory().getClass() != DefaultObjectWrapperFactory.class
+        || hasTypeHandlerForResultObject(rsw, resultType)) {
+      return null;
+    }
+    final MetaClass metaType = MetaClass.forClass(resultType, reflectorFactory);
+    final List<ResultMapping> constructorMappings = resultMap.getConstructorResultMappings();
+    if (constructorMappings.isEmpty() && !metaType.hasDefaultConstructor()) {
+      // constructor auto-mapping
+      return null;
+    }
+    final List<Class<?>> constructorArgTypes = new ArrayList<>();
+    final List<CompiledRowMapper.ConstructorArg> constructorArgs = new ArrayList<>();
+    for (ResultMapping constructorMapping : constructorMappings) {
+      if (constructorMapping.getResultSet() != null) {
+        return null;
+      }
+      constructorArgTypes.add(constructorMapping.getJavaType());
+      constructorArgs.add(new CompiledRowMapper.ConstructorArg(constructorMapping));
+    }
+    final List<CompiledRowMapper.PropertySetter> explicitSetters = new ArrayList<>();
+    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, null);
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      if (propertyMapping.isCompositeResult() || propertyMapping.getResultSet() != null) {
+        return null;
+      }
+      final String column = propertyMapping.getColumn();
+      final String property = propertyMapping.getProperty();
+      if (column == null || property == null || !mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
+        continue;
+      }
+      if (isNestedProperty(property) || !metaType.hasSetter(property)) {
+        return null;
+      }
+      explicitSetters.add(new CompiledRowMapper.PropertySetter(column, property, propertyMapping.getTypeHandler(),
+          metaType.getSetInvoker(property), metaType.getSetterType(property).isPrimitive()));
+    }
+    final List<CompiledRowMapper.PropertySetter> setters = new ArrayList<>();
+    if (shouldApplyAutomaticMappings(resultMap, false)) {
+      final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, null);
+      for (String columnName : unmappedColumnNames) {
+        if (isNestedProperty(columnName)) {
+          return null;
+        }
+      }
+      for (String columnName : unmappedColumnNames) {
+        final String property = metaType.findProperty(columnName, configuration.isMapUnderscoreToCamelCase());
+        if (property != null && metaType.hasSetter(property)) {
+          if (resultMap.getMappedProperties().contains(property)) {
+            continue;
+          }
+          final Class<?> propertyType = metaType.getSetterType(property);
+          if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
+            setters.add(new CompiledRowMapper.PropertySetter(columnName, property, rsw.getTypeHandler(propertyType, columnName),
+                metaType.getSetInvoker(property), propertyType.isPrimitive()));
+          } else {
+            configuration.getAutoMappingUnknownColumnBehavior()
+                .doAction(mappedStatement, columnName, property, propertyType);
+          }
+        } else {
+          configuration.getAutoMappingUnknownColumnBehavior()
+              .doAction(mappedStatement, columnName, (property != null) ? property : columnName, null);
+        }
+      }
+    }
+    // automatic mappings are applied before the explicit ones
+    setters.addAll(explicitSetters);
+    return new CompiledRowMapper(resultType, objectFactory, constructorArgTypes, constructorArgs, setters,
+        configuration.isCallSettersOnNulls(), configuration.isReturnInstanceForEmptyRow());
+  }
+
+  private boolean isNestedProperty(String name) {
+    return name.indexOf('.') > -1 || name.indexOf('[') > -1;
+  }
+
   // MULTIPLE RESULT SETS
 
   private void linkToParents(ResultSet rs, ResultMapping parentMapping, Object rowValue) throws SQLException {
@@ -751,6 +911,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (executor.isCached(nestedQuery, key)) {
         executor.deferLoad(nestedQuery, metaResultObject, property, key, targetType);
         value = DEFERRED;
+      } else if (propertyMapping.getBatchQueryId() != null && (propertyMapping.isLazy() || batchLoadingAllowed)) {
+        final BatchResultLoader batchResultLoader = getBatchResultLoader(propertyMapping, targetType);
+        batchResultLoader.addKey(nestedQueryParameterObject);
+        if (propertyMapping.isLazy()) {
+          lazyLoader.addLoader(property, metaResultObject, new BatchedResultLoader(configuration, executor, nestedQuery,
+              nestedQueryParameterObject, targetType, key, nestedBoundSql, batchResultLoader));
+        } else {
+          pendingBatchLoads.add(new PendingBatchLoad(metaResultObject, property, batchResultLoader, nestedQueryParameterObject));
+        }
+        value = DEFERRED;
       } else {
         final ResultLoader resultLoader = new ResultLoader(configuration, executor, nestedQuery, nestedQueryParameterObject, targetType, key, nestedBoundSql);
         if (propertyMapping.isLazy()) {
@@ -764,6 +934,27 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return value;
   }
 
+  private BatchResultLoader getBatchResultLoader(ResultMapping propertyMapping, Class<?> targetType) {
+    BatchResultLoader batchResultLoader = batchResultLoaders.get(propertyMapping);
+    if (batchResultLoader == null) {
+      final MappedStatement batchQuery = configuration.getMappedStatement(propertyMapping.getBatchQueryId());
+      batchResultLoader = new BatchResultLoader(configuration, executor, batchQuery, propertyMapping.getBatchKey(), targetType,
+          configuration.getBatchFetchSize());
+      batchResultLoaders.put(propertyMapping, batchResultLoader);
+    }
+    return batchResultLoader;
+  }
+
+  private void loadPendingBatches() throws SQLException {
+    for (PendingBatchLoad pendingBatchLoad : pendingBatchLoads) {
+      final Object value = pendingBatchLoad.batchResultLoader.loadResult(pendingBatchLoad.key);
+      if (value != null || configuration.isCallSettersOnNulls()) {
+        pendingBatchLoad.metaObject.setValue(pendingBatchLoad.property, value);
+      }
+    }
+    pendingBatchLoads.clear();
+  }
+
   private Object prepareParameterForNestedQuery(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     if (resultMapping.isCompositeResult()) {
       return prepareCompositeKeyParameter(rs, resultMapping, parameterType, columnPrefix);
@@ -856,15 +1047,21 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     skipRows(resultSet, rowBounds);
     Object rowValue = previousRowValue;
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+      rowCount++;
       final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
       final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
       Object partialObject = nestedResultObjects.get(rowKey);
       // issue #577 && #542
-      if (mappedStatement.isResultOrdered()) {
+      if (resultOrdered) {
         if (partialObject == null && rowValue != null) {
           nestedResultObjects.clear();
           storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
         }
+        if (partialObject == null && completedRowKeys != null && rowKey != CacheKey.NULL_CACHE_KEY && !completedRowKeys.add(rowKey)) {
+          throw new ExecutorException("The rows of statement '" + mappedStatement.getId() + "' are not ordered: the rows of result map '"
+              + discriminatedResultMap.getId() + "' with key " + rowKey + " appeared again after its object was completed. "
+              + "Order the statement by the id columns of the result map or do not use nestedResultStreaming=VERIFY_ORDERED.");
+        }
         rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
       } else {
         rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
@@ -873,7 +1070,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
     }
-    if (rowValue != null && mappedStatement.isResultOrdered() && shouldProcessMoreRows(resultContext, rowBounds)) {
+    if (rowValue != null && resultOrdered && shouldProcessMoreRows(resultContext, rowBounds)) {
       storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
       previousRowValue = null;
     } else if (rowValue != null) {
@@ -0,0 +1,139 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Keeps what {@link ResultSetWrapper} and {@link DefaultResultSetHandler} work out about the columns of a result
+ * set across executions: the mapped and unmapped columns of each result map, the resolved type handlers, the
+ * automatic mappings and the compiled row mappers.
+ * <p>
+ * Entries are shared by every result set with the same column signature, that is, the same column labels, JDBC types
+ * and Java class names in the same order. The number of signatures is bounded; when the limit is reached an arbitrary
+ * signature is dropped. A size of 0 disables sharing and gives every result set its own entry, as before 3.5.3.
+ *
+ * @since 3.5.3
+ */
+public class ResultSetMappingCache {
+
+  public static final int DEFAULT_SIZE = 512;
+
+  private final ConcurrentMap<Signature, Entry> entries = new ConcurrentHashMap<>();
+  private volatile int size;
+
+  public ResultSetMappingCache() {
+    this(DEFAULT_SIZE);
+  }
+
+  public ResultSetMappingCache(int size) {
+    setSize(size);
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public void setSize(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("The result set mapping cache size must not be negative but was " + size);
+    }
+    this.size = size;
+    if (size == 0) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * Returns the number of column signatures currently cached.
+   */
+  public int getEntryCount() {
+    return entries.size();
+  }
+
+  public void clear() {
+    entries.clear();
+  }
+
+  Entry getEntry(List<String> columnNames, List<JdbcType> jdbcTypes, List<String> classNames) {
+    final int maxSize = size;
+    if (maxSize == 0) {
+      return new Entry();
+    }
+    final Signature signature = new Signature(columnNames, jdbcTypes, classNames);
+    Entry entry = entries.get(signature);
+    if (entry == null) {
+      Iterator<Signature> iterator = entries.keySet().iterator();
+      while (entries.size() >= maxSize && iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+      }
+      entry = entries.computeIfAbsent(signature, k -> new Entry());
+    }
+    return entry;
+  }
+
+  static class Entry {
+    final ConcurrentMap<String, Map<Class<?>, TypeHandler<?>>> typeHandlers = new ConcurrentHashMap<>();
+    final ConcurrentMap<String, List<String>> mappedColumnNames = new ConcurrentHashMap<>();
+    final ConcurrentMap<String, List<String>> unmappedColumnNames = new ConcurrentHashMap<>();
+    final ConcurrentMap<String, List<DefaultResultSetHandler.UnMappedColumnAutoMapping>> autoMappings = new ConcurrentHashMap<>();
+    final ConcurrentMap<String, Optional<CompiledRowMapper>> compiledRowMappers = new ConcurrentHashMap<>();
+  }
+
+  private static final class Signature {
+    private final Object[] columns;
+    private final int hashCode;
+
+    Signature(List<String> columnNames, List<JdbcType> jdbcTypes, List<String> classNames) {
+      final int count = columnNames.size();
+      this.columns = new Object[count * 3];
+      for (int i = 0; i < count; i++) {
+        columns[i * 3] = columnNames.get(i);
+        columns[i * 3 + 1] = jdbcTypes.get(i);
+        columns[i * 3 + 2] = classNames.get(i);
+      }
+      this.hashCode = Arrays.hashCode(columns);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Signature)) {
+        return false;
+      }
+      Signature other = (Signature) o;
+      return hashCode == other.hashCode && Arrays.equals(columns, other.columns);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+}
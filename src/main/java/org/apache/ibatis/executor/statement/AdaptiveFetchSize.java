@@ -0,0 +1,94 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Learns a fetch size per mapped statement when the fetch size policy is
+ * {@link org.apache.ibatis.session.FetchSizePolicy#ADAPTIVE}.
+ * <p>
+ * After each execution, the fetch size of a statement doubles if its rows took more than one round trip, without
+ * ever exceeding {@link #MAX_FETCH_SIZE} rows nor the number of rows of the observed width that fit in
+ * {@link #FETCH_BUFFER_BYTES}.
+ *
+ * @since 3.5.3
+ */
+public class AdaptiveFetchSize {
+
+  public static final int MIN_FETCH_SIZE = 10;
+  public static final int MAX_FETCH_SIZE = 10000;
+  public static final int FETCH_BUFFER_BYTES = 4 * 1024 * 1024;
+
+  private static final int MIN_COLUMN_WIDTH = 8;
+  private static final int MAX_COLUMN_WIDTH = 4096;
+
+  private final ConcurrentMap<String, Integer> fetchSizes = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the fetch size to use for the next execution of a statement.
+   *
+   * @param statementId the mapped statement id
+   * @param initialFetchSize the fetch size to use if the statement has not been executed yet
+   * @return the fetch size
+   */
+  public int getFetchSize(String statementId, int initialFetchSize) {
+    Integer fetchSize = fetchSizes.get(statementId);
+    return fetchSize == null ? initialFetchSize : fetchSize;
+  }
+
+  /**
+   * Records an execution of a statement.
+   *
+   * @param statementId the mapped statement id
+   * @param fetchSize the fetch size the statement was executed with
+   * @param rowCount the number of rows read
+   * @param rowWidth the estimated width of a row in bytes, see {@link #estimateRowWidth(ResultSetMetaData)}
+   */
+  public void record(String statementId, int fetchSize, int rowCount, int rowWidth) {
+    if (fetchSize <= 0) {
+      return;
+    }
+    int limit = Math.max(MIN_FETCH_SIZE, Math.min(MAX_FETCH_SIZE, FETCH_BUFFER_BYTES / Math.max(1, rowWidth)));
+    int next = rowCount > fetchSize ? (int) Math.min(2L * fetchSize, limit) : Math.min(fetchSize, limit);
+    fetchSizes.put(statementId, next);
+  }
+
+  public void clear() {
+    fetchSizes.clear();
+  }
+
+  /**
+   * Estimates the width of a row from the display sizes of its columns. Each column counts for at least
+   * {@value #MIN_COLUMN_WIDTH} and at most {@value #MAX_COLUMN_WIDTH} bytes, so that LOBs and unknown sizes do not
+   * make the estimate meaningless.
+   *
+   * @param metaData the meta data of the result set
+   * @return the estimated width in bytes
+   * @throws SQLException if the meta data cannot be read
+   */
+  public static int estimateRowWidth(ResultSetMetaData metaData) throws SQLException {
+    int width = 0;
+    for (int i = 1, n = metaData.getColumnCount(); i <= n; i++) {
+      width += Math.max(MIN_COLUMN_WIDTH, Math.min(MAX_COLUMN_WIDTH, metaData.getColumnDisplaySize(i)));
+    }
+    return width;
+  }
+
+}
@@ -27,8 +27,10 @@ import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.FetchSizePolicy;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.type.TypeHandlerRegistry;
@@ -86,6 +88,7 @@ public abstract class BaseStatementHandler implements StatementHandler {
     Statement statement = null;
     try {
       statement = instantiateStatement(connection);
+      StatementCancellation.register(statement);
       setStatementTimeout(statement, transactionTimeout);
       setFetchSize(statement);
       return statement;
@@ -119,12 +122,44 @@ public abstract class BaseStatementHandler implements StatementHandler {
       stmt.setFetchSize(fetchSize);
       return;
     }
+    if (configuration.getFetchSizePolicy() == FetchSizePolicy.ADAPTIVE) {
+      stmt.setFetchSize(getAdaptiveFetchSize());
+      return;
+    }
     Integer defaultFetchSize = configuration.getDefaultFetchSize();
     if (defaultFetchSize != null) {
       stmt.setFetchSize(defaultFetchSize);
     }
   }
 
+  /**
+   * Asks the driver to stream the rows of a Cursor or ResultHandler query when the fetch size is adaptive and
+   * driver streaming is enabled. Statements with nested selects are left alone as some drivers cannot run other
+   * statements while streaming.
+   *
+   * @param stmt the statement about to be executed
+   * @throws SQLException if the fetch size cannot be set
+   * @since 3.5.3
+   */
+  protected void prepareStreaming(Statement stmt) throws SQLException {
+    if (mappedStatement.getFetchSize() != null || configuration.getFetchSizePolicy() != FetchSizePolicy.ADAPTIVE
+        || !configuration.isDriverStreamingEnabled()) {
+      return;
+    }
+    for (ResultMap resultMap : mappedStatement.getResultMaps()) {
+      if (resultMap.hasAnyNestedQueries()) {
+        return;
+      }
+    }
+    StatementUtil.applyStreamingFetchSize(stmt, getAdaptiveFetchSize());
+  }
+
+  private int getAdaptiveFetchSize() {
+    Integer defaultFetchSize = configuration.getDefaultFetchSize();
+    return configuration.getAdaptiveFetchSize().getFetchSize(mappedStatement.getId(),
+        defaultFetchSize == null ? AdaptiveFetchSize.MIN_FETCH_SIZE : defaultFetchSize);
+  }
+
   protected void closeStatement(Statement statement) {
     try {
       if (statement != null) {
@@ -61,6 +61,9 @@ public class PreparedStatementHandler extends BaseStatementHandler {
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
+    if (resultHandler != null) {
+      prepareStreaming(ps);
+    }
     ps.execute();
     return resultSetHandler.handleResultSets(ps);
   }
@@ -68,6 +71,7 @@ public class PreparedStatementHandler extends BaseStatementHandler {
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
+    prepareStreaming(ps);
     ps.execute();
     return resultSetHandler.handleCursorResultSets(ps);
   }
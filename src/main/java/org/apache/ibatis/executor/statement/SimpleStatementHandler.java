@@ -71,6 +71,9 @@ public class SimpleStatementHandler extends BaseStatementHandler {
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     String sql = boundSql.getSql();
+    if (resultHandler != null) {
+      prepareStreaming(statement);
+    }
     statement.execute(sql);
     return resultSetHandler.handleResultSets(statement);
   }
@@ -78,6 +81,7 @@ public class SimpleStatementHandler extends BaseStatementHandler {
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     String sql = boundSql.getSql();
+    prepareStreaming(statement);
     statement.execute(sql);
     return resultSetHandler.handleCursorResultSets(statement);
   }
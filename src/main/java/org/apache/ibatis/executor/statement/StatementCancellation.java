@@ -0,0 +1,83 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Lets another thread cancel the statements run by the thread this cancellation is bound to.
+ * <p>
+ * While bound, every statement prepared by a {@link StatementHandler} on the thread is registered here, and
+ * {@link #cancel()} calls {@link Statement#cancel()} on the latest one. Statements prepared after the cancellation
+ * fail immediately.
+ *
+ * @since 3.5.3
+ */
+public class StatementCancellation {
+
+  private static final ThreadLocal<StatementCancellation> LOCAL = new ThreadLocal<>();
+
+  private volatile Statement statement;
+  private volatile boolean cancelled;
+
+  /**
+   * Binds this cancellation to the current thread until {@link #unbind()} is called.
+   */
+  public void bind() {
+    LOCAL.set(this);
+  }
+
+  /**
+   * Unbinds this cancellation from the current thread.
+   */
+  public void unbind() {
+    if (LOCAL.get() == this) {
+      LOCAL.remove();
+    }
+    statement = null;
+  }
+
+  /**
+   * Cancels the running statement, if any, and every statement prepared afterwards.
+   */
+  public void cancel() {
+    cancelled = true;
+    Statement current = statement;
+    if (current != null) {
+      try {
+        current.cancel();
+      } catch (SQLException ignore) {
+        // the statement may have completed or been closed already
+      }
+    }
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  static void register(Statement statement) throws SQLException {
+    StatementCancellation cancellation = LOCAL.get();
+    if (cancellation != null) {
+      cancellation.statement = statement;
+      if (cancellation.cancelled) {
+        throw new SQLException("The statement was cancelled.");
+      }
+    }
+  }
+
+}
@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.executor.statement;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -55,4 +57,33 @@ public class StatementUtil {
     }
   }
 
+  /**
+   * Apply a streaming fetch size.
+   * <p>
+   * Ask the driver to stream the rows of a query, using the setting its database requires.
+   * MySQL Connector/J streams only with a fetch size of {@code Integer.MIN_VALUE} on a forward only, read only
+   * statement, and the PostgreSQL driver only honors the fetch size when auto-commit is off.
+   * </p>
+   * @param statement a target statement
+   * @param fetchSize the number of rows to fetch per round trip on databases that support it
+   * @throws SQLException if a database access error occurs, this method is called on a closed <code>Statement</code>
+   * @since 3.5.3
+   */
+  public static void applyStreamingFetchSize(Statement statement, int fetchSize) throws SQLException {
+    Connection connection = statement.getConnection();
+    String databaseProductName = connection.getMetaData().getDatabaseProductName();
+    if ("MySQL".equals(databaseProductName)) {
+      if (statement.getResultSetType() == ResultSet.TYPE_FORWARD_ONLY
+          && statement.getResultSetConcurrency() == ResultSet.CONCUR_READ_ONLY) {
+        statement.setFetchSize(Integer.MIN_VALUE);
+      }
+    } else if ("PostgreSQL".equals(databaseProductName)) {
+      if (!connection.getAutoCommit()) {
+        statement.setFetchSize(fetchSize);
+      }
+    } else {
+      statement.setFetchSize(fetchSize);
+    }
+  }
+
 }
@@ -24,12 +24,17 @@ import java.util.Properties;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheMetrics;
+import org.apache.ibatis.cache.ThreadSafeCache;
 import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.ExpiringCache;
 import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.WeightedCache;
+import org.apache.ibatis.cache.impl.ConcurrentPerpetualCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
@@ -43,9 +48,14 @@ public class CacheBuilder {
   private final List<Class<? extends Cache>> decorators;
   private Integer size;
   private Long clearInterval;
+  private Long timeToLive;
+  private Double expiryJitter;
+  private Double refreshAhead;
+  private Long maximumWeight;
   private boolean readWrite;
   private Properties properties;
   private boolean blocking;
+  private CacheMetrics metrics;
 
   public CacheBuilder(String id) {
     this.id = id;
@@ -74,6 +84,38 @@ public class CacheBuilder {
     return this;
   }
 
+  /**
+   * @since 3.5.3
+   */
+  public CacheBuilder timeToLive(Long timeToLive) {
+    this.timeToLive = timeToLive;
+    return this;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public CacheBuilder expiryJitter(Double expiryJitter) {
+    this.expiryJitter = expiryJitter;
+    return this;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public CacheBuilder refreshAhead(Double refreshAhead) {
+    this.refreshAhead = refreshAhead;
+    return this;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public CacheBuilder maximumWeight(Long maximumWeight) {
+    this.maximumWeight = maximumWeight;
+    return this;
+  }
+
   public CacheBuilder readWrite(boolean readWrite) {
     this.readWrite = readWrite;
     return this;
@@ -89,19 +131,34 @@ public class CacheBuilder {
     return this;
   }
 
+  /**
+   * @since 3.5.3
+   */
+  public CacheBuilder metrics(CacheMetrics metrics) {
+    this.metrics = metrics;
+    return this;
+  }
+
   public Cache build() {
     setDefaultImplementations();
     Cache cache = newBaseCacheInstance(implementation, id);
     setCacheProperties(cache);
+    setCacheMetrics(cache);
     // issue #352, do not apply decorators to custom caches
-    if (PerpetualCache.class.equals(cache.getClass())) {
+    if (PerpetualCache.class.equals(cache.getClass()) || ConcurrentPerpetualCache.class.equals(cache.getClass())) {
+      boolean threadSafe = cache instanceof ThreadSafeCache;
       for (Class<? extends Cache> decorator : decorators) {
         cache = newCacheDecoratorInstance(decorator, cache);
         setCacheProperties(cache);
+        setCacheMetrics(cache);
+        threadSafe = threadSafe && cache instanceof ThreadSafeCache;
       }
-      cache = setStandardDecorators(cache);
+      cache = setStandardDecorators(cache, threadSafe);
     } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
-      cache = new LoggingCache(cache);
+      cache = new LoggingCache(cache, metrics);
+    }
+    if (metrics != null) {
+      metrics.setCache(cache);
     }
     return cache;
   }
@@ -109,13 +166,14 @@ public class CacheBuilder {
   private void setDefaultImplementations() {
     if (implementation == null) {
       implementation = PerpetualCache.class;
-      if (decorators.isEmpty()) {
-        decorators.add(LruCache.class);
-      }
+    }
+    // a thread safe implementation is not bounded by default, since LruCache would need to be synchronized
+    if (decorators.isEmpty() && PerpetualCache.class.equals(implementation)) {
+      decorators.add(LruCache.class);
     }
   }
 
-  private Cache setStandardDecorators(Cache cache) {
+  private Cache setStandardDecorators(Cache cache, boolean threadSafe) {
     try {
       MetaObject metaCache = SystemMetaObject.forObject(cache);
       if (size != null && metaCache.hasSetter("size")) {
@@ -125,13 +183,35 @@ public class CacheBuilder {
         cache = new ScheduledCache(cache);
         ((ScheduledCache) cache).setClearInterval(clearInterval);
       }
+      if (timeToLive != null) {
+        ExpiringCache expiringCache = new ExpiringCache(cache);
+        expiringCache.setTimeToLive(timeToLive);
+        if (expiryJitter != null) {
+          expiringCache.setJitter(expiryJitter);
+        }
+        if (refreshAhead != null) {
+          expiringCache.setRefreshAhead(refreshAhead);
+        }
+        setCacheMetrics(expiringCache);
+        cache = expiringCache;
+      }
+      if (maximumWeight != null) {
+        // inside SerializedCache, so that serialized copies are weighed by their size in bytes
+        cache = new WeightedCache(cache);
+        ((WeightedCache) cache).setMaximumWeight(maximumWeight);
+        setCacheMetrics(cache);
+        threadSafe = false;
+      }
       if (readWrite) {
         cache = new SerializedCache(cache);
       }
-      cache = new LoggingCache(cache);
-      cache = new SynchronizedCache(cache);
+      cache = new LoggingCache(cache, metrics);
+      if (!threadSafe) {
+        cache = new SynchronizedCache(cache);
+      }
       if (blocking) {
         cache = new BlockingCache(cache);
+        setCacheProperties(cache);
       }
       return cache;
     } catch (Exception e) {
@@ -139,6 +219,15 @@ public class CacheBuilder {
     }
   }
 
+  private void setCacheMetrics(Cache cache) {
+    if (metrics != null) {
+      MetaObject metaCache = SystemMetaObject.forObject(cache);
+      if (metaCache.hasSetter("cacheMetrics")) {
+        metaCache.setValue("cacheMetrics", metrics);
+      }
+    }
+  }
+
   private void setCacheProperties(Cache cache) {
     if (properties != null) {
       MetaObject metaCache = SystemMetaObject.forObject(cache);
@@ -16,9 +16,16 @@
 package org.apache.ibatis.mapping;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
+import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
@@ -26,6 +33,7 @@ import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -36,6 +44,8 @@ import org.apache.ibatis.session.Configuration;
  */
 public final class MappedStatement {
 
+  private static final int MAX_SQL_TABLES = 64;
+
   private String resource;
   private Configuration configuration;
   private String id;
@@ -59,6 +69,17 @@ public final class MappedStatement {
   private Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  private volatile Set<String> tables;
+  private final Map<String, Set<String>> tablesBySql = Collections.synchronizedMap(new LinkedHashMap<String, Set<String>>(16, .75F, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Set<String>> eldest) {
+      return size() > MAX_SQL_TABLES;
+    }
+  });
+  private Set<String> batchDependsOn = Collections.emptySet();
+  private int cursorPrefetchDepth;
 
   MappedStatement() {
     // constructor disabled
@@ -177,6 +198,44 @@ public final class MappedStatement {
       return this;
     }
 
+    /**
+     * @param tables the comma separated names of the tables the statement reads or writes, null to infer them
+     * @since 3.5.3
+     */
+    public Builder tables(String tables) {
+      String[] names = delimitedStringToArray(tables);
+      if (names == null) {
+        mappedStatement.tables = null;
+      } else {
+        Set<String> set = new LinkedHashSet<>();
+        for (String name : names) {
+          set.add(name.trim().toLowerCase(Locale.ENGLISH));
+        }
+        mappedStatement.tables = Collections.unmodifiableSet(set);
+      }
+      return this;
+    }
+
+    /**
+     * @param statementIds the ids of the statements whose batched calls must run before the ones of this statement
+     * @since 3.5.3
+     */
+    public Builder batchDependsOn(String... statementIds) {
+      mappedStatement.batchDependsOn = statementIds == null || statementIds.length == 0 ? Collections.emptySet()
+          : Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(statementIds)));
+      return this;
+    }
+
+    /**
+     * @param cursorPrefetchDepth the number of rows a cursor of this statement maps ahead of its consumer, null or 0
+     *        not to prefetch
+     * @since 3.5.3
+     */
+    public Builder cursorPrefetchDepth(Integer cursorPrefetchDepth) {
+      mappedStatement.cursorPrefetchDepth = cursorPrefetchDepth == null ? 0 : cursorPrefetchDepth;
+      return this;
+    }
+
     /**
      * @deprecated Use {@link #resultSets}
      */
@@ -288,6 +347,76 @@ public final class MappedStatement {
     return resultSets;
   }
 
+  /**
+   * Returns the tables this statement reads or writes, as declared or as found in its SQL.
+   * The tables found in the last SQL strings built from dynamic SQL are remembered, so each string is scanned once.
+   *
+   * @param boundSql the SQL being executed
+   * @return the lower case table names, empty if they are unknown
+   * @since 3.5.3
+   */
+  public Set<String> getTables(BoundSql boundSql) {
+    Set<String> result = getKnownTables();
+    if (result != null) {
+      return result;
+    }
+    String sql = boundSql.getSql();
+    result = tablesBySql.get(sql);
+    if (result == null) {
+      result = SqlTableExtractor.extract(sql);
+      if (sqlSource instanceof RawSqlSource || sqlSource instanceof StaticSqlSource) {
+        tables = result;
+      } else {
+        tablesBySql.put(sql, result);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the tables this statement reads or writes, building its SQL only when they depend on it.
+   *
+   * @param parameterObject the parameter of the statement
+   * @return the lower case table names, empty if they are unknown
+   * @since 3.5.3
+   */
+  public Set<String> getTablesFor(Object parameterObject) {
+    Set<String> result = getKnownTables();
+    return result != null ? result : getTables(getBoundSql(parameterObject));
+  }
+
+  private Set<String> getKnownTables() {
+    if (tables != null) {
+      return tables;
+    }
+    if (statementType == StatementType.CALLABLE) {
+      // a procedure can touch any table
+      return Collections.emptySet();
+    }
+    return null;
+  }
+
+  /**
+   * Returns the statements whose batched calls must run before the ones of this statement when the batch executor
+   * groups statements.
+   *
+   * @return the ids of the statements, empty if none
+   * @since 3.5.3
+   */
+  public Set<String> getBatchDependsOn() {
+    return batchDependsOn;
+  }
+
+  /**
+   * Returns the number of rows a cursor of this statement maps ahead of its consumer on another thread.
+   *
+   * @return the number of rows, 0 if the cursor does not prefetch
+   * @since 3.5.3
+   */
+  public int getCursorPrefetchDepth() {
+    return cursorPrefetchDepth;
+  }
+
   /**
    * @deprecated Use {@link #getResultSets()}
    */
@@ -218,6 +218,45 @@ public class ResultMap {
     return hasNestedQueries;
   }
 
+  /**
+   * Unlike {@link #hasNestedQueries()}, also looks for nested selects in the nested result maps and in the result
+   * maps of the discriminator cases, recursively.
+   *
+   * @return true if mapping a row with this result map may run a nested select
+   * @since 3.5.3
+   */
+  public boolean hasAnyNestedQueries() {
+    return hasAnyNestedQueries(new HashSet<>());
+  }
+
+  private boolean hasAnyNestedQueries(Set<String> visitedIds) {
+    if (!visitedIds.add(id)) {
+      return false;
+    }
+    if (hasNestedQueries) {
+      return true;
+    }
+    for (ResultMapping resultMapping : resultMappings) {
+      if (resultMapping.getNestedResultMapId() != null
+          && hasAnyNestedQueries(resultMapping.getNestedResultMapId(), visitedIds)) {
+        return true;
+      }
+    }
+    if (discriminator != null) {
+      for (String caseResultMapId : discriminator.getDiscriminatorMap().values()) {
+        if (hasAnyNestedQueries(caseResultMapId, visitedIds)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean hasAnyNestedQueries(String resultMapId, Set<String> visitedIds) {
+    return configuration.hasResultMap(resultMapId)
+        && configuration.getResultMap(resultMapId).hasAnyNestedQueries(visitedIds);
+  }
+
   public Class<?> getType() {
     return type;
   }
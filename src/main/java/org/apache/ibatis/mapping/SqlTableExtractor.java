@@ -0,0 +1,213 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Finds the names of the tables a SQL statement reads or writes.
+ * <p>
+ * This is a lexical scan, not a parser: it collects the names that follow FROM, JOIN, INTO, UPDATE and the
+ * comma separated lists of a FROM clause, including the tables listed after derived tables and join conditions.
+ * When a table list cannot be read (unbalanced parentheses, a comma not followed by a table) no table is reported,
+ * which callers treat as "any table". It may report names that are not tables (which only causes extra
+ * invalidations) but misses tables that are only reached through views, functions, procedures or triggers.
+ * Schema prefixes, quotes and case are dropped.
+ */
+final class SqlTableExtractor {
+
+  private static final Set<String> TABLE_KEYWORDS = new HashSet<>(Arrays.asList(
+      "from", "join", "into", "update"));
+
+  private static final Set<String> CLAUSE_KEYWORDS = new HashSet<>(Arrays.asList(
+      "where", "join", "left", "right", "inner", "outer", "full", "cross", "natural", "straight_join", "on",
+      "using", "group", "order", "having", "limit", "offset", "fetch", "for", "union", "except", "intersect",
+      "minus", "set", "values", "value", "select", "window", "returning", "lateral", "partition", "with",
+      "connect", "start", "default", "when"));
+
+  private static final Set<String> LIST_END_KEYWORDS = new HashSet<>(Arrays.asList(
+      "where", "group", "order", "having", "limit", "offset", "fetch", "for", "union", "except", "intersect",
+      "minus", "set", "values", "value", "select", "window", "returning", "connect", "start", "when"));
+
+  private SqlTableExtractor() {
+    // Prevent Instantiation
+  }
+
+  /**
+   * @param sql the statement
+   * @return the lower case table names, empty if none could be found or the table list could not be read
+   */
+  static Set<String> extract(String sql) {
+    List<String> tokens = tokenize(sql);
+    Set<String> tables = new LinkedHashSet<>();
+    // whether the enclosing levels were inside a FROM list when their parenthesis was opened
+    Deque<Boolean> enclosingLists = new ArrayDeque<>();
+    boolean inTableList = false;
+    int i = 0;
+    while (i < tokens.size()) {
+      String token = tokens.get(i);
+      if (TABLE_KEYWORDS.contains(token)) {
+        inTableList = !"into".equals(token);
+        i = readTable(tokens, i + 1, tables);
+      } else if (",".equals(token) && inTableList) {
+        if (i + 1 == tokens.size() || !startsTableReference(tokens.get(i + 1))) {
+          return Collections.emptySet();
+        }
+        i = readTable(tokens, i + 1, tables);
+      } else if ("(".equals(token)) {
+        enclosingLists.push(inTableList);
+        inTableList = false;
+        i++;
+      } else if (")".equals(token)) {
+        if (enclosingLists.isEmpty()) {
+          return Collections.emptySet();
+        }
+        // back in the FROM list after a derived table, its alias and any further tables are read from here
+        inTableList = enclosingLists.pop();
+        i++;
+      } else {
+        if (LIST_END_KEYWORDS.contains(token)) {
+          inTableList = false;
+        }
+        i++;
+      }
+    }
+    if (!enclosingLists.isEmpty()) {
+      return Collections.emptySet();
+    }
+    return Collections.unmodifiableSet(tables);
+  }
+
+  private static int readTable(List<String> tokens, int index, Set<String> tables) {
+    int i = index;
+    if (i < tokens.size() && isIdentifier(tokens.get(i)) && !CLAUSE_KEYWORDS.contains(tokens.get(i))) {
+      tables.add(tableName(tokens.get(i)));
+      i++;
+      if (i < tokens.size() && "as".equals(tokens.get(i))) {
+        i++;
+      }
+      if (i < tokens.size() && isIdentifier(tokens.get(i)) && !CLAUSE_KEYWORDS.contains(tokens.get(i))
+          && !TABLE_KEYWORDS.contains(tokens.get(i))) {
+        // alias
+        i++;
+      }
+    }
+    return i;
+  }
+
+  private static boolean startsTableReference(String token) {
+    return "(".equals(token) || "lateral".equals(token)
+        || (isIdentifier(token) && !CLAUSE_KEYWORDS.contains(token));
+  }
+
+  private static boolean isIdentifier(String token) {
+    char c = token.charAt(0);
+    return Character.isLetter(c) || c == '_' || c == '"' || c == '`' || c == '[';
+  }
+
+  private static String tableName(String token) {
+    String name = token;
+    int dot = lastSeparator(name);
+    if (dot >= 0) {
+      name = name.substring(dot + 1);
+    }
+    if (name.length() > 1 && (name.charAt(0) == '"' || name.charAt(0) == '`' || name.charAt(0) == '[')) {
+      name = name.substring(1, name.length() - 1);
+    }
+    return name;
+  }
+
+  private static int lastSeparator(String name) {
+    char quote = 0;
+    int separator = -1;
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '"' || c == '`') {
+        quote = c;
+      } else if (c == '[') {
+        quote = ']';
+      } else if (c == '.') {
+        separator = i;
+      }
+    }
+    return separator;
+  }
+
+  private static List<String> tokenize(String sql) {
+    List<String> tokens = new ArrayList<>();
+    int length = sql.length();
+    int i = 0;
+    while (i < length) {
+      char c = sql.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '\'') {
+        i = skipQuoted(sql, i + 1, '\'');
+      } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+        while (i < length && sql.charAt(i) != '\n') {
+          i++;
+        }
+      } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+        int end = sql.indexOf("*/", i + 2);
+        i = end < 0 ? length : end + 2;
+      } else if (Character.isLetter(c) || c == '_' || c == '"' || c == '`' || c == '[') {
+        int start = i;
+        i = skipName(sql, i);
+        while (i + 1 < length && sql.charAt(i) == '.') {
+          i = skipName(sql, i + 1);
+        }
+        tokens.add(sql.substring(start, i).toLowerCase(Locale.ENGLISH));
+      } else {
+        tokens.add(String.valueOf(c));
+        i++;
+      }
+    }
+    return tokens;
+  }
+
+  private static int skipName(String sql, int start) {
+    char c = sql.charAt(start);
+    if (c == '"' || c == '`') {
+      return skipQuoted(sql, start + 1, c);
+    } else if (c == '[') {
+      return skipQuoted(sql, start + 1, ']');
+    }
+    int i = start;
+    while (i < sql.length() && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_' || sql.charAt(i) == '$')) {
+      i++;
+    }
+    return i;
+  }
+
+  private static int skipQuoted(String sql, int start, char quote) {
+    int end = sql.indexOf(quote, start);
+    return end < 0 ? sql.length() : end + 1;
+  }
+
+}
@@ -0,0 +1,35 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import org.apache.ibatis.executor.result.ColumnBatch;
+
+/**
+ * Receives the rows of a columnar select, one {@link ColumnBatch} at a time.
+ *
+ * @see SqlSession#selectColumnar(String, Object, int, ColumnBatchHandler)
+ * @since 3.5.3
+ */
+public interface ColumnBatchHandler {
+
+  /**
+   * Handles a batch of rows. The batch is reused once this method returns.
+   *
+   * @param batch the rows
+   */
+  void handleBatch(ColumnBatch batch);
+
+}
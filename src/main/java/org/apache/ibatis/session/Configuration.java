@@ -25,6 +25,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 import org.apache.ibatis.binding.MapperRegistry;
@@ -34,10 +38,16 @@ import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheMetrics;
+import org.apache.ibatis.cache.CacheMetricsFactory;
+import org.apache.ibatis.cache.TableCacheIndex;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.ConcurrentPerpetualCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
@@ -54,6 +64,8 @@ import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetMappingCache;
+import org.apache.ibatis.executor.statement.AdaptiveFetchSize;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.io.VFS;
@@ -115,11 +127,23 @@ public class Configuration {
   protected boolean callSettersOnNulls;
   protected boolean useActualParamName = true;
   protected boolean returnInstanceForEmptyRow;
+  protected boolean compiledRowMappingEnabled;
+  protected int batchFetchSize = 100;
+  protected int batchFlushSize;
+  protected long batchFlushBytes;
+  protected boolean batchRetainParameterObjects = true;
+  protected boolean batchStatementGrouping;
+  protected int batchInsertRewriteSize;
 
   protected String logPrefix;
   protected Class<? extends Log> logImpl;
   protected Class<? extends VFS> vfsImpl;
   protected LocalCacheScope localCacheScope = LocalCacheScope.SESSION;
+  protected CacheInvalidationScope cacheInvalidationScope = CacheInvalidationScope.NAMESPACE;
+  protected NestedResultStreaming nestedResultStreaming = NestedResultStreaming.NONE;
+  protected FetchSizePolicy fetchSizePolicy = FetchSizePolicy.FIXED;
+  protected boolean driverStreamingEnabled;
+  protected java.util.concurrent.Executor asyncExecutor;
   protected JdbcType jdbcTypeForNull = JdbcType.OTHER;
   protected Set<String> lazyLoadTriggerMethods = new HashSet<>(Arrays.asList("equals", "clone", "hashCode", "toString"));
   protected Integer defaultStatementTimeout;
@@ -156,6 +180,11 @@ public class Configuration {
       .conflictMessageProducer((savedValue, targetValue) ->
           ". please check " + savedValue.getResource() + " and " + targetValue.getResource());
   protected final Map<String, Cache> caches = new StrictMap<>("Caches collection");
+  protected final TableCacheIndex tableCacheIndex = new TableCacheIndex();
+  protected final ResultSetMappingCache resultSetMappingCache = new ResultSetMappingCache();
+  protected final AdaptiveFetchSize adaptiveFetchSize = new AdaptiveFetchSize();
+  protected CacheMetricsFactory cacheMetricsFactory;
+  protected final Map<String, CacheMetrics> cacheMetrics = new ConcurrentHashMap<>();
   protected final Map<String, ResultMap> resultMaps = new StrictMap<>("Result Maps collection");
   protected final Map<String, ParameterMap> parameterMaps = new StrictMap<>("Parameter Maps collection");
   protected final Map<String, KeyGenerator> keyGenerators = new StrictMap<>("Key Generators collection");
@@ -189,10 +218,13 @@ public class Configuration {
     typeAliasRegistry.registerAlias("UNPOOLED", UnpooledDataSourceFactory.class);
 
     typeAliasRegistry.registerAlias("PERPETUAL", PerpetualCache.class);
+    typeAliasRegistry.registerAlias("CONCURRENT_PERPETUAL", ConcurrentPerpetualCache.class);
     typeAliasRegistry.registerAlias("FIFO", FifoCache.class);
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
+    typeAliasRegistry.registerAlias("TINYLFU", TinyLfuCache.class);
+    typeAliasRegistry.registerAlias("OFF_HEAP", OffHeapCache.class);
 
     typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
@@ -268,6 +300,191 @@ public class Configuration {
     this.returnInstanceForEmptyRow = returnEmptyInstance;
   }
 
+  /**
+   * @since 3.5.3
+   */
+  public boolean isCompiledRowMappingEnabled() {
+    return compiledRowMappingEnabled;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void setCompiledRowMappingEnabled(boolean compiledRowMappingEnabled) {
+    this.compiledRowMappingEnabled = compiledRowMappingEnabled;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public ResultSetMappingCache getResultSetMappingCache() {
+    return resultSetMappingCache;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public int getResultSetMappingCacheSize() {
+    return resultSetMappingCache.getSize();
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void setResultSetMappingCacheSize(int resultSetMappingCacheSize) {
+    resultSetMappingCache.setSize(resultSetMappingCacheSize);
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public NestedResultStreaming getNestedResultStreaming() {
+    return nestedResultStreaming;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void setNestedResultStreaming(NestedResultStreaming nestedResultStreaming) {
+    this.nestedResultStreaming = nestedResultStreaming;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public int getBatchFetchSize() {
+    return batchFetchSize;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void setBatchFetchSize(int batchFetchSize) {
+    this.batchFetchSize = batchFetchSize;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public int getBatchFlushSize() {
+    return batchFlushSize;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void setBatchFlushSize(int batchFlushSize) {
+    this.batchFlushSize = batchFlushSize;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public long getBatchFlushBytes() {
+    return batchFlushBytes;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void setBatchFlushBytes(long batchFlushBytes) {
+    this.batchFlushBytes = batchFlushBytes;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public boolean isBatchRetainParameterObjects() {
+    return batchRetainParameterObjects;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void setBatchRetainParameterObjects(boolean batchRetainParameterObjects) {
+    this.batchRetainParameterObjects = batchRetainParameterObjects;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public boolean isBatchStatementGrouping() {
+    return batchStatementGrouping;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void setBatchStatementGrouping(boolean batchStatementGrouping) {
+    this.batchStatementGrouping = batchStatementGrouping;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public int getBatchInsertRewriteSize() {
+    return batchInsertRewriteSize;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void setBatchInsertRewriteSize(int batchInsertRewriteSize) {
+    this.batchInsertRewriteSize = batchInsertRewriteSize;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public FetchSizePolicy getFetchSizePolicy() {
+    return fetchSizePolicy;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void setFetchSizePolicy(FetchSizePolicy fetchSizePolicy) {
+    this.fetchSizePolicy = fetchSizePolicy;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public boolean isDriverStreamingEnabled() {
+    return driverStreamingEnabled;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void setDriverStreamingEnabled(boolean driverStreamingEnabled) {
+    this.driverStreamingEnabled = driverStreamingEnabled;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public AdaptiveFetchSize getAdaptiveFetchSize() {
+    return adaptiveFetchSize;
+  }
+
+  /**
+   * Returns the executor that runs asynchronous mapper methods, parallel queries and cursor prefetching.
+   * Unless set, a pool of daemon threads shared by all configurations is used.
+   *
+   * @since 3.5.3
+   */
+  public java.util.concurrent.Executor getAsyncExecutor() {
+    return asyncExecutor == null ? DefaultAsyncExecutorHolder.EXECUTOR : asyncExecutor;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void setAsyncExecutor(java.util.concurrent.Executor asyncExecutor) {
+    this.asyncExecutor = asyncExecutor;
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -465,6 +682,27 @@ public class Configuration {
     this.localCacheScope = localCacheScope;
   }
 
+  /**
+   * @since 3.5.3
+   */
+  public CacheInvalidationScope getCacheInvalidationScope() {
+    return cacheInvalidationScope;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void setCacheInvalidationScope(CacheInvalidationScope cacheInvalidationScope) {
+    this.cacheInvalidationScope = cacheInvalidationScope;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public TableCacheIndex getTableCacheIndex() {
+    return tableCacheIndex;
+  }
+
   public JdbcType getJdbcTypeForNull() {
     return jdbcTypeForNull;
   }
@@ -612,7 +850,8 @@ public class Configuration {
       executor = new SimpleExecutor(this, transaction);
     }
     if (cacheEnabled) {
-      executor = new CachingExecutor(executor);
+      executor = new CachingExecutor(executor,
+          cacheInvalidationScope == CacheInvalidationScope.TABLE ? tableCacheIndex : null);
     }
     executor = (Executor) interceptorChain.pluginAll(executor);
     return executor;
@@ -654,6 +893,45 @@ public class Configuration {
     return caches.get(id);
   }
 
+  /**
+   * @since 3.5.3
+   */
+  public CacheMetricsFactory getCacheMetricsFactory() {
+    return cacheMetricsFactory;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void setCacheMetricsFactory(CacheMetricsFactory cacheMetricsFactory) {
+    this.cacheMetricsFactory = cacheMetricsFactory;
+  }
+
+  /**
+   * Creates the metrics of a new cache with the configured {@link CacheMetricsFactory}.
+   *
+   * @param cacheId the id of the cache
+   * @return the metrics, or null if no factory is configured
+   * @since 3.5.3
+   */
+  public CacheMetrics newCacheMetrics(String cacheId) {
+    if (cacheMetricsFactory == null) {
+      return null;
+    }
+    CacheMetrics metrics = cacheMetricsFactory.create(cacheId);
+    cacheMetrics.put(cacheId, metrics);
+    return metrics;
+  }
+
+  /**
+   * @param cacheId the id of a cache
+   * @return its metrics, or null if it has none
+   * @since 3.5.3
+   */
+  public CacheMetrics getCacheMetrics(String cacheId) {
+    return cacheMetrics.get(cacheId);
+  }
+
   public boolean hasCache(String id) {
     return caches.containsKey(id);
   }
@@ -914,6 +1192,16 @@ public class Configuration {
     }
   }
 
+  private static class DefaultAsyncExecutorHolder {
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "mybatis-async-" + THREAD_NUMBER.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
   protected static class StrictMap<V> extends HashMap<String, V> {
 
     private static final long serialVersionUID = -4950446264854982944L;
@@ -0,0 +1,34 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+/**
+ * Defines how the fetch size of statements without a {@code fetchSize} of their own is chosen.
+ *
+ * @since 3.5.3
+ */
+public enum FetchSizePolicy {
+  /**
+   * The {@code defaultFetchSize} setting is used, if any.
+   */
+  FIXED,
+  /**
+   * The fetch size of each statement starts at {@code defaultFetchSize} and grows with the number of rows it returns,
+   * within a memory budget based on the width of its rows. With {@code driverStreamingEnabled}, Cursor and
+   * ResultHandler queries without nested selects also ask the driver to stream their rows.
+   */
+  ADAPTIVE
+}
@@ -0,0 +1,39 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+/**
+ * Defines how statements with nested result maps hand their results over.
+ *
+ * @since 3.5.3
+ */
+public enum NestedResultStreaming {
+  /**
+   * Only statements with {@code resultOrdered} set stream their results; the others keep every object until the
+   * result set is finished.
+   */
+  NONE,
+  /**
+   * Every statement is treated as if {@code resultOrdered} was set: the rows of a root object are assumed to be
+   * contiguous and each root is handed over, and its nested objects released, as soon as the next one starts.
+   */
+  ASSUME_ORDERED,
+  /**
+   * Like {@link #ASSUME_ORDERED}, but fails when the rows of a root object that was already handed over appear again.
+   * This keeps the row keys of the completed roots, but not their objects.
+   */
+  VERIFY_ORDERED
+}
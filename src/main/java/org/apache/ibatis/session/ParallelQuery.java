@@ -0,0 +1,87 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A group of independent selects to be run concurrently with {@link SqlSessionFactory#selectParallel(ParallelQuery)}.
+ * <p>
+ * Each select is identified by a name that is unique within the group and used to read its result from the
+ * {@link ParallelQueryResult}.
+ *
+ * @since 3.5.3
+ */
+public class ParallelQuery {
+
+  private final List<Select> selects = new ArrayList<>();
+
+  public ParallelQuery select(String name, String statement) {
+    return select(name, statement, null, RowBounds.DEFAULT);
+  }
+
+  public ParallelQuery select(String name, String statement, Object parameter) {
+    return select(name, statement, parameter, RowBounds.DEFAULT);
+  }
+
+  public ParallelQuery select(String name, String statement, Object parameter, RowBounds rowBounds) {
+    for (Select select : selects) {
+      if (select.getName().equals(name)) {
+        throw new SqlSessionException("Parallel query already contains a select named '" + name + "'.");
+      }
+    }
+    selects.add(new Select(name, statement, parameter, rowBounds));
+    return this;
+  }
+
+  public List<Select> getSelects() {
+    return Collections.unmodifiableList(selects);
+  }
+
+  public static class Select {
+
+    private final String name;
+    private final String statement;
+    private final Object parameter;
+    private final RowBounds rowBounds;
+
+    Select(String name, String statement, Object parameter, RowBounds rowBounds) {
+      this.name = name;
+      this.statement = statement;
+      this.parameter = parameter;
+      this.rowBounds = rowBounds;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getStatement() {
+      return statement;
+    }
+
+    public Object getParameter() {
+      return parameter;
+    }
+
+    public RowBounds getRowBounds() {
+      return rowBounds;
+    }
+  }
+
+}
@@ -0,0 +1,55 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The results of a {@link ParallelQuery}, by select name.
+ *
+ * @since 3.5.3
+ */
+public class ParallelQueryResult {
+
+  private final Map<String, List<?>> results;
+
+  public ParallelQueryResult(Map<String, List<?>> results) {
+    this.results = Collections.unmodifiableMap(results);
+  }
+
+  /**
+   * Returns the result of a select.
+   *
+   * @param <E> the returned list element type
+   * @param name the name of the select in the {@link ParallelQuery}
+   * @return the list of mapped objects
+   */
+  @SuppressWarnings("unchecked")
+  public <E> List<E> getList(String name) {
+    if (!results.containsKey(name)) {
+      throw new SqlSessionException("Parallel query does not contain a select named '" + name + "'.");
+    }
+    return (List<E>) results.get(name);
+  }
+
+  public Set<String> getNames() {
+    return results.keySet();
+  }
+
+}
@@ -169,6 +169,30 @@ public interface SqlSession extends Closeable {
    */
   void select(String statement, Object parameter, RowBounds rowBounds, ResultHandler handler);
 
+  /**
+   * Retrieve the rows of a statement as {@link org.apache.ibatis.executor.result.ColumnBatch}es of up to
+   * {@code batchSize} rows. Columns are read without the result map of the statement and numeric columns are
+   * stored in primitive arrays, so no object is created per row.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param batchSize The maximum number of rows of a batch
+   * @param handler ColumnBatchHandler that will handle each batch
+   * @since 3.5.3
+   */
+  void selectColumnar(String statement, Object parameter, int batchSize, ColumnBatchHandler handler);
+
+  /**
+   * Retrieve the rows of a statement as {@link org.apache.ibatis.executor.result.ColumnBatch}es of up to
+   * {@code batchSize} rows, within the specified row bounds.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param rowBounds RowBound instance to limit the query results
+   * @param batchSize The maximum number of rows of a batch
+   * @param handler ColumnBatchHandler that will handle each batch
+   * @since 3.5.3
+   */
+  void selectColumnar(String statement, Object parameter, RowBounds rowBounds, int batchSize, ColumnBatchHandler handler);
+
   /**
    * Execute an insert statement.
    * @param statement Unique identifier matching the statement to execute.
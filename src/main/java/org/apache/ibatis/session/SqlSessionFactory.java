@@ -16,6 +16,7 @@
 package org.apache.ibatis.session;
 
 import java.sql.Connection;
+import java.util.concurrent.Executor;
 
 /**
  * Creates an {@link SqlSession} out of a connection or a DataSource
@@ -40,6 +41,28 @@ public interface SqlSessionFactory {
 
   SqlSession openSession(ExecutorType execType, Connection connection);
 
+  /**
+   * Runs the selects of a group concurrently, each one on its own session and pooled connection, and waits for all
+   * of them. If a select fails, the other ones are cancelled with {@link java.sql.Statement#cancel()} and its
+   * exception is thrown.
+   *
+   * @param query the selects to run
+   * @return the results of the selects, by name
+   * @since 3.5.3
+   */
+  ParallelQueryResult selectParallel(ParallelQuery query);
+
+  /**
+   * Runs the selects of a group concurrently on the given executor. On Java 21 and later, an executor that starts a
+   * virtual thread per task is a good fit since the selects spend most of their time waiting on the database.
+   *
+   * @param query the selects to run
+   * @param executor the executor that runs the selects
+   * @return the results of the selects, by name
+   * @since 3.5.3
+   */
+  ParallelQueryResult selectParallel(ParallelQuery query, Executor executor);
+
   Configuration getConfiguration();
 
 }
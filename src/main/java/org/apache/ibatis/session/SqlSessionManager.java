@@ -24,6 +24,7 @@ import java.sql.Connection;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Executor;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
@@ -151,6 +152,16 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionFactory.openSession(execType, connection);
   }
 
+  @Override
+  public ParallelQueryResult selectParallel(ParallelQuery query) {
+    return sqlSessionFactory.selectParallel(query);
+  }
+
+  @Override
+  public ParallelQueryResult selectParallel(ParallelQuery query, Executor executor) {
+    return sqlSessionFactory.selectParallel(query, executor);
+  }
+
   @Override
   public Configuration getConfiguration() {
     return sqlSessionFactory.getConfiguration();
@@ -226,6 +237,16 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     sqlSessionProxy.select(statement, parameter, rowBounds, handler);
   }
 
+  @Override
+  public void selectColumnar(String statement, Object parameter, int batchSize, ColumnBatchHandler handler) {
+    sqlSessionProxy.selectColumnar(statement, parameter, batchSize, handler);
+  }
+
+  @Override
+  public void selectColumnar(String statement, Object parameter, RowBounds rowBounds, int batchSize, ColumnBatchHandler handler) {
+    sqlSessionProxy.selectColumnar(statement, parameter, rowBounds, batchSize, handler);
+  }
+
   @Override
   public int insert(String statement) {
     return sqlSessionProxy.insert(statement);
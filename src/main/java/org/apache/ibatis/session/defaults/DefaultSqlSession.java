@@ -31,9 +31,11 @@ import org.apache.ibatis.exceptions.TooManyResultsException;
 import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.result.ColumnBatchResultHandler;
 import org.apache.ibatis.executor.result.DefaultMapResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ColumnBatchHandler;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -177,6 +179,16 @@ public class DefaultSqlSession implements SqlSession {
     }
   }
 
+  @Override
+  public void selectColumnar(String statement, Object parameter, int batchSize, ColumnBatchHandler handler) {
+    selectColumnar(statement, parameter, RowBounds.DEFAULT, batchSize, handler);
+  }
+
+  @Override
+  public void selectColumnar(String statement, Object parameter, RowBounds rowBounds, int batchSize, ColumnBatchHandler handler) {
+    select(statement, parameter, rowBounds, new ColumnBatchResultHandler(batchSize, handler));
+  }
+
   @Override
   public int insert(String statement) {
     return insert(statement, null);
@@ -24,6 +24,8 @@ import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ParallelQuery;
+import org.apache.ibatis.session.ParallelQueryResult;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.TransactionIsolationLevel;
@@ -82,6 +84,16 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
     return openSessionFromConnection(execType, connection);
   }
 
+  @Override
+  public ParallelQueryResult selectParallel(ParallelQuery query) {
+    return new ParallelQueryRunner(this).run(query);
+  }
+
+  @Override
+  public ParallelQueryResult selectParallel(ParallelQuery query, java.util.concurrent.Executor executor) {
+    return new ParallelQueryRunner(this).run(query, executor);
+  }
+
   @Override
   public Configuration getConfiguration() {
     return configuration;
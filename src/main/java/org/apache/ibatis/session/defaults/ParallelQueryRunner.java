@@ -0,0 +1,119 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session.defaults;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.statement.StatementCancellation;
+import org.apache.ibatis.session.ParallelQuery;
+import org.apache.ibatis.session.ParallelQueryResult;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+/**
+ * Runs the selects of a {@link ParallelQuery}, each on its own session and connection, and cancels the running
+ * siblings when one of them fails.
+ *
+ * @since 3.5.3
+ */
+class ParallelQueryRunner {
+
+  private final SqlSessionFactory sqlSessionFactory;
+
+  ParallelQueryRunner(SqlSessionFactory sqlSessionFactory) {
+    this.sqlSessionFactory = sqlSessionFactory;
+  }
+
+  ParallelQueryResult run(ParallelQuery query) {
+    return run(query, sqlSessionFactory.getConfiguration().getAsyncExecutor());
+  }
+
+  ParallelQueryResult run(ParallelQuery query, Executor executor) {
+    final List<ParallelQuery.Select> selects = query.getSelects();
+    final CompletionService<List<Object>> completionService = new ExecutorCompletionService<>(executor);
+    final Map<Future<List<Object>>, ParallelQuery.Select> futures = new HashMap<>();
+    final List<StatementCancellation> cancellations = new ArrayList<>(selects.size());
+    final Map<String, List<?>> results = new LinkedHashMap<>();
+    try {
+      for (ParallelQuery.Select select : selects) {
+        final StatementCancellation cancellation = new StatementCancellation();
+        cancellations.add(cancellation);
+        futures.put(completionService.submit(() -> select(select, cancellation)), select);
+        results.put(select.getName(), null);
+      }
+      for (int i = 0; i < selects.size(); i++) {
+        final Future<List<Object>> future = completionService.take();
+        try {
+          results.put(futures.get(future).getName(), future.get());
+        } catch (ExecutionException e) {
+          throw unwrap(futures.get(future), e.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      cancel(futures, cancellations);
+      throw ExceptionFactory.wrapException("Interrupted while waiting for parallel query.  Cause: " + e, e);
+    } catch (RuntimeException | Error e) {
+      cancel(futures, cancellations);
+      throw e;
+    } finally {
+      ErrorContext.instance().reset();
+    }
+    return new ParallelQueryResult(results);
+  }
+
+  private List<Object> select(ParallelQuery.Select select, StatementCancellation cancellation) {
+    cancellation.bind();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.selectList(select.getStatement(), select.getParameter(), select.getRowBounds());
+    } finally {
+      cancellation.unbind();
+      ErrorContext.instance().reset();
+    }
+  }
+
+  private void cancel(Map<Future<List<Object>>, ParallelQuery.Select> futures, List<StatementCancellation> cancellations) {
+    for (Future<List<Object>> future : futures.keySet()) {
+      future.cancel(false);
+    }
+    for (StatementCancellation cancellation : cancellations) {
+      cancellation.cancel();
+    }
+  }
+
+  private RuntimeException unwrap(ParallelQuery.Select select, Throwable cause) {
+    if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return ExceptionFactory.wrapException("Error running parallel select '" + select.getName() + "'.  Cause: " + cause,
+        (Exception) cause);
+  }
+
+}
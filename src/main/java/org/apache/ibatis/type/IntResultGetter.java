@@ -0,0 +1,38 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A type handler that can read its column as a primitive int, without boxing.
+ *
+ * @since 3.5.3
+ */
+public interface IntResultGetter {
+
+  /**
+   * Reads a column of the current row.
+   *
+   * @param rs the result set
+   * @param columnIndex the column index, starting at 1
+   * @return the column value, or 0 for SQL NULL; callers tell the two apart with {@link ResultSet#wasNull()}
+   * @throws SQLException if the value cannot be read
+   */
+  int getIntResult(ResultSet rs, int columnIndex) throws SQLException;
+
+}
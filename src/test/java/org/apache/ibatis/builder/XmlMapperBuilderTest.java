@@ -60,6 +60,7 @@ class XmlMapperBuilderTest {
       assertThat(mappedStatement.getResultSetType()).isEqualTo(ResultSetType.SCROLL_SENSITIVE);
       assertThat(mappedStatement.isFlushCacheRequired()).isFalse();
       assertThat(mappedStatement.isUseCache()).isFalse();
+      assertThat(mappedStatement.getCursorPrefetchDepth()).isEqualTo(32);
     }
   }
 
@@ -75,6 +76,7 @@ class XmlMapperBuilderTest {
 
     MappedStatement mappedStatement = configuration.getMappedStatement("selectAuthor");
     assertThat(mappedStatement.getResultSetType()).isEqualTo(ResultSetType.SCROLL_INSENSITIVE);
+    assertThat(mappedStatement.getCursorPrefetchDepth()).isZero();
   }
 
   @Test
@@ -0,0 +1,167 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BlockingCacheTest {
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldHandValueOfLeaderToFollower() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject("key"));
+    Future<Object> follower = executor.submit(() -> cache.getObject("key"));
+    waitUntilWaiting(follower);
+    cache.putObject("key", "value");
+    assertEquals("value", follower.get(5, TimeUnit.SECONDS));
+    assertEquals(0, cache.getPendingLoadCount());
+  }
+
+  @Test
+  void shouldReadValueOfLeaderThroughDelegate() throws Exception {
+    BlockingCache cache = new BlockingCache(new SerializedCache(new PerpetualCache("default")));
+    ArrayList<String> value = new ArrayList<>(Collections.singletonList("value"));
+    assertNull(cache.getObject("key"));
+    Future<Object> follower = executor.submit(() -> cache.getObject("key"));
+    waitUntilWaiting(follower);
+    cache.putObject("key", value);
+    Object copy = follower.get(5, TimeUnit.SECONDS);
+    assertEquals(value, copy);
+    assertNotSame(value, copy);
+  }
+
+  @Test
+  void shouldPromoteFollowerWhenLeaderRollsBack() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject("key"));
+    Future<Object> follower = executor.submit(() -> {
+      Object value = cache.getObject("key");
+      cache.removeObject("key");
+      return value == null ? "lead" : value;
+    });
+    waitUntilWaiting(follower);
+    cache.removeObject("key");
+    assertEquals("lead", follower.get(5, TimeUnit.SECONDS));
+    assertEquals(0, cache.getPendingLoadCount());
+  }
+
+  @Test
+  void shouldLetLeaderMissAgain() {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject("key"));
+    assertNull(cache.getObject("key"));
+    cache.putObject("key", "value");
+    assertEquals("value", cache.getObject("key"));
+    assertEquals(0, cache.getPendingLoadCount());
+  }
+
+  @Test
+  void shouldGiveUpWaitingAfterTimeout() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setTimeout(50);
+    assertNull(cache.getObject("key"));
+    Future<Object> follower = executor.submit(() -> {
+      try {
+        return cache.getObject("key");
+      } catch (CacheException e) {
+        return e;
+      }
+    });
+    assertTrue(follower.get(5, TimeUnit.SECONDS) instanceof CacheException);
+    cache.removeObject("key");
+    assertEquals(0, cache.getPendingLoadCount());
+  }
+
+  @Test
+  void shouldServeStaleValueWhileLeaderReloads() throws Exception {
+    Cache delegate = new PerpetualCache("default");
+    BlockingCache cache = new BlockingCache(delegate);
+    cache.setStaleWhileRevalidate(true);
+    cache.putObject("key", "old");
+    // expired by a decorator below
+    delegate.clear();
+    assertNull(cache.getObject("key"));
+    assertEquals("old", executor.submit(() -> cache.getObject("key")).get(5, TimeUnit.SECONDS));
+    cache.putObject("key", "new");
+    assertEquals("new", cache.getObject("key"));
+  }
+
+  @Test
+  void shouldNotServeStaleValueAfterClear() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setStaleWhileRevalidate(true);
+    cache.setTimeout(50);
+    cache.putObject("key", "old");
+    cache.clear();
+    assertNull(cache.getObject("key"));
+    Future<Object> follower = executor.submit(() -> {
+      try {
+        return cache.getObject("key");
+      } catch (CacheException e) {
+        return e;
+      }
+    });
+    assertTrue(follower.get(5, TimeUnit.SECONDS) instanceof CacheException);
+  }
+
+  @Test
+  void shouldNotServeStaleValueAfterLeaderGaveUp() throws Exception {
+    Cache delegate = new PerpetualCache("default");
+    BlockingCache cache = new BlockingCache(delegate);
+    cache.setStaleWhileRevalidate(true);
+    cache.putObject("key", "old");
+    delegate.clear();
+    assertNull(cache.getObject("key"));
+    cache.removeObject("key");
+    assertNull(cache.getObject("key"));
+    cache.setTimeout(50);
+    Future<Object> follower = executor.submit(() -> {
+      try {
+        return cache.getObject("key");
+      } catch (CacheException e) {
+        return e;
+      }
+    });
+    assertTrue(follower.get(5, TimeUnit.SECONDS) instanceof CacheException);
+  }
+
+  private static void waitUntilWaiting(Future<?> future) throws InterruptedException {
+    // the follower cannot complete before the leader releases the key
+    Thread.sleep(100);
+    assertFalse(future.isDone());
+  }
+
+}
@@ -26,6 +26,8 @@ import java.io.NotSerializableException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
 
 class CacheKeyTest {
 
@@ -87,6 +89,71 @@ class CacheKeyTest {
     assertEquals(key1, key2);
   }
 
+  @Test
+  void shouldGrowBeyondExpectedUpdateCount() {
+    CacheKey key1 = new CacheKey(2);
+    CacheKey key2 = new CacheKey();
+    for (int i = 0; i < 100; i++) {
+      key1.update(i);
+      key2.update(i);
+    }
+    assertEquals(100, key1.getUpdateCount());
+    assertEquals(key1, key2);
+    assertEquals(key1.hashCode(), key2.hashCode());
+  }
+
+  @Test
+  void shouldNotShareComponentsWithClone() throws Exception {
+    CacheKey key = new CacheKey(new Object[] { 1, "hello" });
+    CacheKey clone = key.clone();
+    assertEquals(key, clone);
+    clone.update(2);
+    key.update(3);
+    assertEquals(3, clone.getUpdateCount());
+    assertNotEquals(key, clone);
+  }
+
+  @Test
+  void shouldCompareFingerprintsOfText() {
+    CacheKey key1 = new CacheKey();
+    key1.updateFingerprint("select * from blog where id = ?");
+    CacheKey key2 = new CacheKey();
+    key2.updateFingerprint(new StringBuilder("select * from blog where id = ?"));
+    CacheKey key3 = new CacheKey();
+    key3.updateFingerprint("select * from blog where id = ? ");
+    CacheKey key4 = new CacheKey();
+    key4.updateFingerprint(null);
+    CacheKey key5 = new CacheKey();
+    key5.update(null);
+    assertEquals(key1, key2);
+    assertEquals(key1.hashCode(), key2.hashCode());
+    assertNotEquals(key1, key3);
+    assertEquals(key4, key5);
+    assertFalse(key1.toString().contains("select"));
+  }
+
+  @Test
+  void shouldSpreadHashCodesOfSimilarKeys() {
+    Set<Integer> hashCodes = new HashSet<>();
+    for (int i = 0; i < 10000; i++) {
+      CacheKey key = new CacheKey();
+      key.update("org.apache.ibatis.domain.blog.mappers.BlogMapper.selectBlog");
+      key.update(0);
+      key.update(Integer.MAX_VALUE);
+      key.updateFingerprint("select * from blog where id = ?");
+      key.update(i);
+      hashCodes.add(key.hashCode());
+    }
+    assertEquals(10000, hashCodes.size());
+  }
+
+  @Test
+  void serializationFingerprintTest() throws Exception {
+    CacheKey cacheKey = new CacheKey();
+    cacheKey.updateFingerprint("select 1");
+    Assertions.assertEquals(cacheKey, serialize(cacheKey));
+  }
+
   @Test
   void serializationExceptionTest() {
     CacheKey cacheKey = new CacheKey();
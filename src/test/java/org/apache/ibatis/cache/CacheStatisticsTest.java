@@ -0,0 +1,109 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.impl.CacheStatistics;
+import org.apache.ibatis.cache.impl.CacheStatisticsFactory;
+import org.apache.ibatis.cache.impl.JmxCacheStatisticsFactory;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+class CacheStatisticsTest {
+
+  @Test
+  void shouldRecordEventsOfDecoratorChain() {
+    CacheStatistics statistics = new CacheStatistics("default");
+    Cache cache = new CacheBuilder("default").implementation(PerpetualCache.class).addDecorator(LruCache.class)
+        .size(2).metrics(statistics).build();
+    cache.putObject(1, 1);
+    cache.putObject(2, 2);
+    cache.putObject(3, 3);
+    assertNotNull(cache.getObject(3));
+    assertNull(cache.getObject(1));
+    cache.clear();
+
+    assertEquals(1, statistics.getHitCount());
+    assertEquals(1, statistics.getMissCount());
+    assertEquals(0.5, statistics.getHitRatio(), 0);
+    assertEquals(3, statistics.getPutCount());
+    assertEquals(1, statistics.getEvictionCount());
+    assertEquals(1, statistics.getClearCount());
+    assertEquals(0, statistics.getSize());
+    cache.putObject(4, 4);
+    assertEquals(1, statistics.getSize());
+  }
+
+  @Test
+  void shouldComputeLoadTimePercentiles() {
+    CacheStatistics statistics = new CacheStatistics("default");
+    assertEquals(0, statistics.getLoadTime99thPercentile());
+    for (int i = 1; i <= 100; i++) {
+      statistics.recordLoad(TimeUnit.MILLISECONDS.toNanos(i));
+    }
+    assertEquals(100, statistics.getLoadCount());
+    assertEquals(50500, statistics.getAverageLoadTime(), 0);
+    assertEquals(100000, statistics.getMaximumLoadTime());
+    long median = statistics.getLoadTime50thPercentile();
+    assertTrue(median >= 50000 && median <= 100000, "median " + median);
+    assertTrue(statistics.getLoadTime99thPercentile() >= 99000);
+    assertTrue(statistics.getLoadTime99thPercentile() <= statistics.getMaximumLoadTime());
+
+    statistics.reset();
+    assertEquals(0, statistics.getLoadCount());
+  }
+
+  @Test
+  void shouldKeepStatisticsOfEveryCache() {
+    CacheStatisticsFactory factory = new CacheStatisticsFactory();
+    CacheMetrics metrics = factory.create("blog");
+    assertSame(metrics, factory.getStatistics("blog"));
+    assertSame(metrics, factory.create("blog"));
+    assertNull(factory.getStatistics("author"));
+    assertEquals(1, factory.getAllStatistics().size());
+  }
+
+  @Test
+  void shouldExportStatisticsToJmx() throws Exception {
+    JmxCacheStatisticsFactory factory = new JmxCacheStatisticsFactory();
+    CacheMetrics metrics = factory.create("org.apache.ibatis.domain.BlogMapper");
+    metrics.recordHit();
+    metrics.recordMiss();
+    metrics.recordMiss();
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = JmxCacheStatisticsFactory.getObjectName("org.apache.ibatis.domain.BlogMapper");
+    try {
+      assertEquals(1L, server.getAttribute(name, "HitCount"));
+      assertEquals(2L, server.getAttribute(name, "MissCount"));
+      // a new configuration replaces the bean
+      new JmxCacheStatisticsFactory().create("org.apache.ibatis.domain.BlogMapper");
+      assertEquals(0L, server.getAttribute(name, "HitCount"));
+    } finally {
+      server.unregisterMBean(name);
+    }
+  }
+
+}
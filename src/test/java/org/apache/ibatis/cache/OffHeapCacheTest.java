@@ -0,0 +1,153 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.cache.impl.CacheStatistics;
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.junit.jupiter.api.Test;
+
+class OffHeapCacheTest {
+
+  @Test
+  void shouldReturnCopiesOfCachedObjects() {
+    OffHeapCache cache = new OffHeapCache("default");
+    List<String> value = new ArrayList<>();
+    value.add("a");
+    cache.putObject(0, value);
+    Object cached = cache.getObject(0);
+    assertEquals(value, cached);
+    assertNotSame(value, cached);
+    assertNotSame(cached, cache.getObject(0));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldRemoveItemOnDemand() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.putObject(0, 0);
+    assertEquals(0, cache.removeObject(0));
+    assertNull(cache.getObject(0));
+    assertNull(cache.removeObject(0));
+    assertEquals(0, cache.getMemoryUsed());
+  }
+
+  @Test
+  void shouldFlushAllItemsOnDemand() {
+    OffHeapCache cache = new OffHeapCache("default");
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertNotNull(cache.getObject(4));
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+    assertEquals(0, cache.getSize());
+    assertEquals(0, cache.getMemoryUsed());
+  }
+
+  @Test
+  void shouldReplaceValueAndReleaseOldBytes() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.putObject(0, "first");
+    long used = cache.getMemoryUsed();
+    cache.putObject(0, "other");
+    assertEquals("other", cache.getObject(0));
+    assertEquals(used, cache.getMemoryUsed());
+    cache.putObject(0, null);
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldEvictOldestEntriesWithinCapacity() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(64 * 1024);
+    cache.setSegments(1);
+    for (int i = 0; i < 10000; i++) {
+      cache.putObject(i, new byte[100]);
+    }
+    assertTrue(cache.getMemoryUsed() <= 64 * 1024);
+    assertTrue(cache.getEvictionCount() > 0);
+    assertNull(cache.getObject(0));
+    assertNotNull(cache.getObject(9999));
+    assertEquals(10000 - cache.getEvictionCount(), cache.getSize());
+  }
+
+  @Test
+  void shouldNotCacheValuesLargerThanAPage() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(8 * 1024);
+    cache.setSegments(1);
+    cache.putObject(0, "small");
+    cache.putObject(0, new byte[2048]);
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getSize());
+    assertEquals(0, cache.getMemoryUsed());
+  }
+
+  @Test
+  void shouldReportValuesLargerThanAPage() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(8 * 1024);
+    cache.setSegments(1);
+    CacheStatistics statistics = new CacheStatistics("default");
+    cache.setCacheMetrics(statistics);
+    cache.putObject(0, new byte[2048]);
+    cache.putObject(1, new byte[4096]);
+    cache.putObject(2, "small");
+    assertEquals(2, cache.getRejectionCount());
+    assertEquals(2, statistics.getRejectionCount());
+    assertEquals(0, statistics.getEvictionCount());
+  }
+
+  @Test
+  void shouldCountHitsAndMisses() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.putObject(0, 0);
+    cache.getObject(0);
+    cache.getObject(1);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  void shouldUsePluggableCodec() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCodec(StringCodec.class.getName());
+    cache.putObject(0, "value");
+    assertEquals("value", cache.getObject(0));
+    assertEquals(5, cache.getMemoryUsed());
+  }
+
+  public static class StringCodec implements CacheCodec {
+    @Override
+    public byte[] encode(Object value) {
+      return value.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+
+}
@@ -0,0 +1,172 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+class TableCacheIndexTest {
+
+  private final TableCacheIndex index = new TableCacheIndex();
+  private final Cache blogCache = new PerpetualCache("blog");
+  private final Cache authorCache = new PerpetualCache("author");
+
+  @Test
+  void shouldOnlyInvalidateEntriesOfWrittenTablesAcrossCaches() {
+    CacheKey blogWithAuthor = key("blogWithAuthor");
+    CacheKey blog = key("blog");
+    CacheKey author = key("author");
+    commitRead(blogCache, blogWithAuthor, "blog", "author");
+    commitRead(blogCache, blog, "blog");
+    commitRead(authorCache, author, "author");
+
+    TransactionalCacheManager tcm = new TransactionalCacheManager(index);
+    tcm.invalidate(Collections.singleton("author"));
+    assertNotNull(blogCache.getObject(blogWithAuthor));
+    tcm.commit();
+
+    assertNull(blogCache.getObject(blogWithAuthor));
+    assertNotNull(blogCache.getObject(blog));
+    assertNull(authorCache.getObject(author));
+  }
+
+  @Test
+  void shouldNotApplyInvalidationsOnRollback() {
+    CacheKey blog = key("blog");
+    commitRead(blogCache, blog, "blog");
+
+    TransactionalCacheManager tcm = new TransactionalCacheManager(index);
+    tcm.invalidate(Collections.singleton("blog"));
+    tcm.rollback();
+    tcm.commit();
+
+    assertNotNull(blogCache.getObject(blog));
+  }
+
+  @Test
+  void shouldDiscardPendingEntriesOfWrittenTables() {
+    CacheKey blog = key("blog");
+    CacheKey author = key("author");
+    TransactionalCacheManager tcm = new TransactionalCacheManager(index);
+    tcm.putObject(blogCache, blog, "value", Collections.singleton("blog"));
+    tcm.putObject(authorCache, author, "value", Collections.singleton("author"));
+    assertFalse(tcm.isInvalidated(Collections.singleton("blog")));
+
+    tcm.invalidate(Collections.singleton("blog"));
+    assertTrue(tcm.isInvalidated(Arrays.asList("post", "blog")));
+    assertFalse(tcm.isInvalidated(Collections.singleton("author")));
+    tcm.commit();
+
+    assertNull(blogCache.getObject(blog));
+    assertNotNull(authorCache.getObject(author));
+    assertFalse(tcm.isInvalidated(Collections.singleton("blog")));
+  }
+
+  @Test
+  void shouldTreatUnknownTablesAsAnyTable() {
+    CacheKey unknown = key("unknown");
+    CacheKey blog = key("blog");
+    commitRead(blogCache, unknown);
+    commitRead(blogCache, blog, "blog");
+
+    TransactionalCacheManager tcm = new TransactionalCacheManager(index);
+    tcm.invalidate(Collections.singleton("post"));
+    tcm.commit();
+    assertNull(blogCache.getObject(unknown));
+    assertNotNull(blogCache.getObject(blog));
+
+    tcm.invalidate(Collections.emptySet());
+    assertTrue(tcm.isInvalidated(Collections.singleton("author")));
+    tcm.commit();
+    assertNull(blogCache.getObject(blog));
+  }
+
+  @Test
+  void shouldForgetEntriesOfClearedCache() {
+    CacheKey blog = key("blog");
+    commitRead(blogCache, blog, "blog");
+
+    TransactionalCacheManager tcm = new TransactionalCacheManager(index);
+    tcm.clear(blogCache);
+    tcm.commit();
+    blogCache.putObject(blog, "unindexed");
+
+    tcm.invalidate(Collections.singleton("blog"));
+    tcm.commit();
+    assertEquals("unindexed", blogCache.getObject(blog));
+  }
+
+  @Test
+  void shouldForgetOldestKeysOfEvictingCache() {
+    Cache lruCache = new LruCache(new PerpetualCache("lru"));
+    TransactionalCacheManager tcm = new TransactionalCacheManager(index);
+    for (int i = 0; i < 10000; i++) {
+      tcm.putObject(lruCache, key("blog" + i), "value", Collections.singleton("blog"));
+      tcm.commit();
+    }
+    assertTrue(index.getKeyCount("blog") <= 2 * lruCache.getSize());
+    assertNotNull(lruCache.getObject(key("blog9999")));
+
+    tcm.invalidate(Collections.singleton("blog"));
+    tcm.commit();
+    assertNull(lruCache.getObject(key("blog9999")));
+    assertEquals(0, index.getKeyCount("blog"));
+  }
+
+  @Test
+  void shouldRemoveInvalidatedEntriesFromTheCache() {
+    commitRead(blogCache, key("blog"), "blog");
+    commitRead(blogCache, key("author"), "author");
+
+    TransactionalCacheManager tcm = new TransactionalCacheManager(index);
+    tcm.invalidate(Collections.singleton("blog"));
+    tcm.commit();
+    assertEquals(1, blogCache.getSize());
+  }
+
+  @Test
+  void shouldNotEvictLiveEntriesAfterInvalidation() {
+    LruCache lruCache = new LruCache(new PerpetualCache("lru"));
+    lruCache.setSize(2);
+    commitRead(lruCache, key("author"), "author");
+    commitRead(lruCache, key("blog"), "blog");
+
+    TransactionalCacheManager tcm = new TransactionalCacheManager(index);
+    tcm.invalidate(Collections.singleton("blog"));
+    tcm.commit();
+    commitRead(lruCache, key("post"), "post");
+    assertNotNull(lruCache.getObject(key("author")));
+    assertEquals(2, lruCache.getSize());
+  }
+
+  private void commitRead(Cache cache, CacheKey key, String... tables) {
+    TransactionalCacheManager tcm = new TransactionalCacheManager(index);
+    tcm.putObject(cache, key, "value", Arrays.asList(tables));
+    tcm.commit();
+    assertNotNull(cache.getObject(key));
+  }
+
+  private static CacheKey key(String name) {
+    return new CacheKey(new Object[] { name });
+  }
+
+}
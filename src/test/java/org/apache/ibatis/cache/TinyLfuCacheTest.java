@@ -0,0 +1,135 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.ibatis.cache.decorators.FifoCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+class TinyLfuCacheTest {
+
+  @Test
+  void shouldNotGrowBeyondSize() {
+    TinyLfuCache cache = new TinyLfuCache(new PerpetualCache("default"));
+    cache.setSize(5);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, i);
+    }
+    assertTrue(cache.getSize() <= 5);
+  }
+
+  @Test
+  void shouldKeepFrequentlyUsedItemsDuringScan() {
+    TinyLfuCache cache = new TinyLfuCache(new PerpetualCache("default"));
+    cache.setSize(100);
+    for (int i = 0; i < 50; i++) {
+      cache.putObject(i, i);
+    }
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 50; i++) {
+        assertEquals(i, cache.getObject(i));
+      }
+    }
+    for (int i = 1000; i < 2000; i++) {
+      assertNull(cache.getObject(i));
+      cache.putObject(i, i);
+    }
+    for (int i = 0; i < 50; i++) {
+      assertEquals(i, cache.getObject(i));
+    }
+  }
+
+  @Test
+  void shouldRemoveItemOnDemand() {
+    Cache cache = new TinyLfuCache(new PerpetualCache("default"));
+    cache.putObject(0, 0);
+    assertNotNull(cache.getObject(0));
+    cache.removeObject(0);
+    assertNull(cache.getObject(0));
+  }
+
+  @Test
+  void shouldFlushAllItemsOnDemand() {
+    Cache cache = new TinyLfuCache(new PerpetualCache("default"));
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertNotNull(cache.getObject(0));
+    assertNotNull(cache.getObject(4));
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+  }
+
+  @Test
+  void shouldHaveBetterHitRatioThanLruAndFifoOnZipfianTraceWithScan() {
+    int[] trace = zipfianTraceWithScan();
+
+    LruCache lru = new LruCache(new PerpetualCache("lru"));
+    lru.setSize(500);
+    FifoCache fifo = new FifoCache(new PerpetualCache("fifo"));
+    fifo.setSize(500);
+    TinyLfuCache tinyLfu = new TinyLfuCache(new PerpetualCache("tinylfu"));
+    tinyLfu.setSize(500);
+
+    double tinyLfuHitRatio = hitRatio(tinyLfu, trace);
+    assertTrue(tinyLfuHitRatio > hitRatio(lru, trace));
+    assertTrue(tinyLfuHitRatio > hitRatio(fifo, trace));
+  }
+
+  // SoftCache is left out, its evictions depend on the memory pressure rather than on the trace
+  private static double hitRatio(Cache cache, int[] trace) {
+    int hits = 0;
+    for (int key : trace) {
+      if (cache.getObject(key) != null) {
+        hits++;
+      } else {
+        cache.putObject(key, key);
+      }
+    }
+    return (double) hits / trace.length;
+  }
+
+  private static int[] zipfianTraceWithScan() {
+    int items = 10000;
+    double[] cumulative = new double[items];
+    double sum = 0;
+    for (int i = 0; i < items; i++) {
+      sum += 1 / Math.pow(i + 1, 0.9);
+      cumulative[i] = sum;
+    }
+    Random random = new Random(42);
+    int[] trace = new int[120000];
+    for (int i = 0; i < trace.length; i++) {
+      if (i >= 50000 && i < 70000) {
+        // a report query reading many rows once
+        trace[i] = items + i;
+      } else {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+        trace[i] = index < 0 ? -index - 1 : index;
+      }
+    }
+    return trace;
+  }
+
+}
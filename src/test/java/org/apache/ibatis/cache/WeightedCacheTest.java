@@ -0,0 +1,102 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.cache.decorators.WeightedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+class WeightedCacheTest {
+
+  @Test
+  void shouldWeighListsByRowCount() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.setMaximumWeight(100);
+    cache.putObject("small1", Collections.singletonList(1));
+    cache.putObject("small2", Collections.singletonList(2));
+    assertEquals(2, cache.getTotalWeight());
+    assertNotNull(cache.getObject("small1"));
+    cache.putObject("large", rows(99));
+    assertNotNull(cache.getObject("small1"));
+    assertNull(cache.getObject("small2"));
+    assertNotNull(cache.getObject("large"));
+    assertEquals(100, cache.getTotalWeight());
+  }
+
+  @Test
+  void shouldWeighSerializedCopiesByBytes() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.setMaximumWeight(1000);
+    for (int i = 0; i < 10; i++) {
+      cache.putObject(i, new byte[200]);
+    }
+    assertEquals(5, cache.getSize());
+    assertEquals(1000, cache.getTotalWeight());
+  }
+
+  @Test
+  void shouldKeepEntryHeavierThanMaximum() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.setMaximumWeight(10);
+    cache.putObject("small", rows(1));
+    cache.putObject("large", rows(50));
+    assertNull(cache.getObject("small"));
+    assertNotNull(cache.getObject("large"));
+  }
+
+  @Test
+  void shouldRemoveWeightOfRemovedItem() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.setMaximumWeight(100);
+    cache.putObject("small", rows(1));
+    cache.putObject("large", rows(60));
+    cache.removeObject("large");
+    assertNull(cache.getObject("large"));
+    assertEquals(1, cache.getTotalWeight());
+    cache.putObject("other", rows(60));
+    assertNotNull(cache.getObject("small"));
+    assertEquals(61, cache.getTotalWeight());
+  }
+
+  @Test
+  void shouldFlushAllItemsOnDemand() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertNotNull(cache.getObject(0));
+    assertNotNull(cache.getObject(4));
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+    assertEquals(0, cache.getTotalWeight());
+  }
+
+  private static List<Integer> rows(int count) {
+    List<Integer> rows = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      rows.add(i);
+    }
+    return rows;
+  }
+
+}
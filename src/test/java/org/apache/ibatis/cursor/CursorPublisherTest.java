@@ -0,0 +1,169 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CursorPublisherTest {
+
+  @Test
+  void shouldEmitOnlyRequestedItems() {
+    ListCursor cursor = new ListCursor(1, 2, 3, 4, 5);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new CursorPublisher<>(cursor).subscribe(subscriber);
+    assertTrue(subscriber.items.isEmpty());
+    subscriber.subscription.request(2);
+    assertEquals(Arrays.asList(1, 2), subscriber.items);
+    assertFalse(subscriber.completed);
+    subscriber.subscription.request(10);
+    assertEquals(Arrays.asList(1, 2, 3, 4, 5), subscriber.items);
+    assertTrue(subscriber.completed);
+    assertTrue(cursor.closed);
+  }
+
+  @Test
+  void shouldCloseCursorOnCancel() {
+    ListCursor cursor = new ListCursor(1, 2, 3);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new CursorPublisher<>(cursor).subscribe(subscriber);
+    subscriber.subscription.request(1);
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(1);
+    assertEquals(Arrays.asList(1), subscriber.items);
+    assertFalse(subscriber.completed);
+    assertTrue(cursor.closed);
+  }
+
+  @Test
+  void shouldSupportRequestsFromOnNext() {
+    ListCursor cursor = new ListCursor(1, 2, 3);
+    RecordingSubscriber subscriber = new RecordingSubscriber() {
+      @Override
+      public void onNext(Integer item) {
+        super.onNext(item);
+        subscription.request(1);
+      }
+    };
+    new CursorPublisher<>(cursor).subscribe(subscriber);
+    subscriber.subscription.request(1);
+    assertEquals(Arrays.asList(1, 2, 3), subscriber.items);
+    assertTrue(subscriber.completed);
+  }
+
+  @Test
+  void shouldSignalErrorOnNonPositiveRequest() {
+    ListCursor cursor = new ListCursor(1, 2, 3);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new CursorPublisher<>(cursor).subscribe(subscriber);
+    subscriber.subscription.request(0);
+    assertTrue(subscriber.error instanceof IllegalArgumentException);
+    assertTrue(cursor.closed);
+  }
+
+  @Test
+  void shouldRejectSecondSubscriber() {
+    CursorPublisher<Integer> publisher = new CursorPublisher<>(new ListCursor(1));
+    publisher.subscribe(new RecordingSubscriber());
+    RecordingSubscriber second = new RecordingSubscriber();
+    publisher.subscribe(second);
+    assertTrue(second.error instanceof IllegalStateException);
+  }
+
+  private static class RecordingSubscriber implements CursorPublisher.Subscriber<Integer> {
+
+    CursorPublisher.Subscription subscription;
+    final List<Integer> items = new ArrayList<>();
+    boolean completed;
+    Throwable error;
+
+    @Override
+    public void onSubscribe(CursorPublisher.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(Integer item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+
+  private static class ListCursor implements Cursor<Integer> {
+
+    private final Iterator<Integer> iterator;
+    private int index = -1;
+    boolean closed;
+
+    ListCursor(Integer... items) {
+      this.iterator = Arrays.asList(items).iterator();
+    }
+
+    @Override
+    public boolean isOpen() {
+      return index >= 0 && !closed;
+    }
+
+    @Override
+    public boolean isConsumed() {
+      return !iterator.hasNext();
+    }
+
+    @Override
+    public int getCurrentIndex() {
+      return index;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+      return new Iterator<Integer>() {
+        @Override
+        public boolean hasNext() {
+          return !closed && iterator.hasNext();
+        }
+
+        @Override
+        public Integer next() {
+          index++;
+          return iterator.next();
+        }
+      };
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+}
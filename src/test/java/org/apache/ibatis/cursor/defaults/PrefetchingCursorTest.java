@@ -0,0 +1,159 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PrefetchingCursorTest {
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void createExecutor() {
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @AfterEach
+  void shutdownExecutor() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldReturnAllItemsInOrder() {
+    ListCursor delegate = new ListCursor(Arrays.asList(1, null, 3, 4, 5));
+    PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, 2, executor);
+    assertEquals(-1, cursor.getCurrentIndex());
+    List<Integer> items = new ArrayList<>();
+    for (Integer item : cursor) {
+      items.add(item);
+    }
+    assertEquals(Arrays.asList(1, null, 3, 4, 5), items);
+    assertEquals(4, cursor.getCurrentIndex());
+    assertTrue(cursor.isConsumed());
+    assertFalse(cursor.isOpen());
+  }
+
+  @Test
+  void shouldStopProducerOnClose() throws Exception {
+    List<Integer> source = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      source.add(i);
+    }
+    ListCursor delegate = new ListCursor(source);
+    PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, 4, executor);
+    Iterator<Integer> iterator = cursor.iterator();
+    assertEquals(Integer.valueOf(0), iterator.next());
+    assertTrue(cursor.isOpen());
+    cursor.close();
+    assertTrue(delegate.closed);
+    assertTrue(delegate.produced < 1000);
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  void shouldRethrowProducerFailure() {
+    RuntimeException failure = new RuntimeException("failed");
+    ListCursor delegate = new ListCursor(Arrays.asList(1, 2)) {
+      @Override
+      protected Integer produce(Integer item) {
+        if (item == 2) {
+          throw failure;
+        }
+        return item;
+      }
+    };
+    Iterator<Integer> iterator = new PrefetchingCursor<>(delegate, 4, executor).iterator();
+    assertEquals(Integer.valueOf(1), iterator.next());
+    assertSame(failure, assertThrows(RuntimeException.class, iterator::hasNext));
+    assertTrue(delegate.closed);
+  }
+
+  @Test
+  void shouldCloseDelegateWhenClosedBeforeIteration() {
+    ListCursor delegate = new ListCursor(Arrays.asList(1, 2));
+    PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, 4, executor);
+    cursor.close();
+    assertTrue(delegate.closed);
+    assertThrows(IllegalStateException.class, cursor::iterator);
+  }
+
+  private static class ListCursor implements Cursor<Integer> {
+
+    private final List<Integer> items;
+    volatile boolean closed;
+    volatile int produced;
+
+    ListCursor(List<Integer> items) {
+      this.items = items;
+    }
+
+    protected Integer produce(Integer item) {
+      return item;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return produced > 0 && !closed;
+    }
+
+    @Override
+    public boolean isConsumed() {
+      return produced == items.size();
+    }
+
+    @Override
+    public int getCurrentIndex() {
+      return produced - 1;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+      return new Iterator<Integer>() {
+        @Override
+        public boolean hasNext() {
+          return !closed && produced < items.size();
+        }
+
+        @Override
+        public Integer next() {
+          return produce(items.get(produced++));
+        }
+      };
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+}
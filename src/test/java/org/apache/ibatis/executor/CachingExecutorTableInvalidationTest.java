@@ -0,0 +1,145 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.junit.jupiter.api.Test;
+
+class CachingExecutorTableInvalidationTest {
+
+  private final Configuration config = new Configuration();
+  private final Cache cache = new PerpetualCache("blog_cache");
+  private final MappedStatement selectBlogs = select("selectBlogs", "select * from blog");
+  private final MappedStatement selectBlogsWithAuthors = select("selectBlogsWithAuthors",
+      "select * from blog b join author a on b.author_id = a.id");
+  private final MappedStatement updateAuthor = new MappedStatement.Builder(config, "updateAuthor",
+      new StaticSqlSource(config, "update author set username = 'jim'"), SqlCommandType.UPDATE)
+      .cache(cache).flushCacheRequired(true).build();
+  private int queryCount;
+
+  @Test
+  void shouldOnlyInvalidateEntriesReadFromWrittenTables() throws SQLException {
+    Executor executor = createExecutor();
+    executor.query(selectBlogs, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+    executor.query(selectBlogsWithAuthors, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+    executor.close(false);
+    assertEquals(2, queryCount);
+
+    executor = createExecutor();
+    executor.update(updateAuthor, null);
+    executor.close(false);
+
+    executor = createExecutor();
+    executor.query(selectBlogs, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+    assertEquals(2, queryCount);
+    executor.query(selectBlogsWithAuthors, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+    assertEquals(3, queryCount);
+    executor.close(false);
+  }
+
+  @Test
+  void shouldNotServeEntriesOfTablesWrittenInTheSameTransaction() throws SQLException {
+    Executor executor = createExecutor();
+    executor.query(selectBlogsWithAuthors, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+    executor.close(false);
+
+    executor = createExecutor();
+    executor.update(updateAuthor, null);
+    executor.query(selectBlogsWithAuthors, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+    assertEquals(2, queryCount);
+    executor.close(true);
+
+    executor = createExecutor();
+    executor.query(selectBlogsWithAuthors, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+    assertEquals(2, queryCount);
+    executor.close(false);
+  }
+
+  @Test
+  void shouldNotBuildTheSqlOfWritesWhoseTablesAreKnown() throws SQLException {
+    int[] builtSqlCount = new int[1];
+    SqlSource sqlSource = parameterObject -> {
+      builtSqlCount[0]++;
+      return new BoundSql(config, "update author set username = 'jim'", Collections.emptyList(), parameterObject);
+    };
+    MappedStatement updateAuthorWithTables = new MappedStatement.Builder(config, "updateAuthorWithTables", sqlSource,
+        SqlCommandType.UPDATE).cache(cache).flushCacheRequired(true).tables("author").build();
+
+    Executor executor = createExecutor();
+    executor.update(updateAuthorWithTables, null);
+    executor.close(false);
+    assertEquals(0, builtSqlCount[0]);
+  }
+
+  private MappedStatement select(String id, String sql) {
+    return new MappedStatement.Builder(config, id, new StaticSqlSource(config, sql), SqlCommandType.SELECT)
+        .cache(cache).useCache(true).build();
+  }
+
+  private Executor createExecutor() {
+    Transaction transaction = new JdbcTransaction(null, null, false);
+    return new CachingExecutor(new CountingExecutor(config, transaction), config.getTableCacheIndex());
+  }
+
+  private class CountingExecutor extends BaseExecutor {
+
+    CountingExecutor(Configuration configuration, Transaction transaction) {
+      super(configuration, transaction);
+    }
+
+    @Override
+    protected int doUpdate(MappedStatement ms, Object parameter) {
+      return 1;
+    }
+
+    @Override
+    protected List<BatchResult> doFlushStatements(boolean isRollback) {
+      return Collections.emptyList();
+    }
+
+    @Override
+    protected <E> List<E> doQuery(MappedStatement ms, Object parameter, RowBounds rowBounds,
+        ResultHandler resultHandler, BoundSql boundSql) {
+      queryCount++;
+      return Collections.emptyList();
+    }
+
+    @Override
+    protected <E> Cursor<E> doQueryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds,
+        BoundSql boundSql) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+}
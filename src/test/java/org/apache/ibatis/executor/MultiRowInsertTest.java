@@ -0,0 +1,99 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class MultiRowInsertTest {
+
+  private final Configuration configuration = new Configuration();
+
+  @Test
+  void shouldRewriteSingleRowInsert() {
+    MultiRowInsert insert = of("insert into author (id, name) values (?, coalesce(?, ')'))");
+    assertNotNull(insert);
+    insert.addRow(new Object[] { 1, "a" });
+    insert.addRow(new Object[] { 2, "b" });
+    insert.addRow(new Object[] { 3, "c" });
+    BoundSql boundSql = insert.chunk(configuration, 1, 2);
+    assertEquals("insert into author (id, name) values (?, coalesce(?, ')')), (?, coalesce(?, ')'))", boundSql.getSql());
+    assertEquals(4, boundSql.getParameterMappings().size());
+    assertEquals(2, boundSql.getAdditionalParameter(boundSql.getParameterMappings().get(0).getProperty()));
+    assertEquals("c", boundSql.getAdditionalParameter(boundSql.getParameterMappings().get(3).getProperty()));
+  }
+
+  @Test
+  void shouldRewriteInsertWithoutColumnList() {
+    assertNotNull(of("INSERT INTO author VALUES(?, ?)"));
+  }
+
+  @Test
+  void shouldNotRewriteOtherStatements() {
+    assertNull(of("insert into author (id, name) select id, name from person where id = ? and name = ?"));
+    assertNull(of("insert into author (id, name) values (?, ?) on conflict do nothing"));
+    assertNull(of("insert into author (id, name) values (?, ?), (3, 'c')"));
+    assertNull(of("update author set id = ?, name = ?"));
+  }
+
+  @Test
+  void shouldNotRewriteInsertWithSelectKey() {
+    MappedStatement ms = new MappedStatement.Builder(configuration, "insertAuthor",
+        new StaticSqlSource(configuration, "insert into author (id, name) values (?, ?)"), SqlCommandType.INSERT)
+            .keyGenerator(new SelectKeyGenerator(null, false)).build();
+    assertNull(MultiRowInsert.of(ms, boundSql(ms)));
+  }
+
+  @Test
+  void shouldSplitRowsInPowerOfTwoChunks() {
+    MultiRowInsert insert = of("insert into author (id, name) values (?, ?)");
+    for (int i = 0; i < 27; i++) {
+      insert.addRow(new Object[] { i, "name" });
+    }
+    assertEquals(Arrays.asList(8, 8, 8, 2, 1), insert.chunkSizes(10));
+    assertEquals(Arrays.asList(16, 8, 2, 1), insert.chunkSizes(16));
+    assertEquals(Collections.emptyList(), of("insert into author (id, name) values (?, ?)").chunkSizes(16));
+  }
+
+  private MultiRowInsert of(String sql) {
+    List<ParameterMapping> parameterMappings = Arrays.asList(
+        new ParameterMapping.Builder(configuration, "id", Integer.class).build(),
+        new ParameterMapping.Builder(configuration, "name", String.class).build());
+    MappedStatement ms = new MappedStatement.Builder(configuration, "insertAuthor",
+        new StaticSqlSource(configuration, sql, parameterMappings),
+        sql.startsWith("update") ? SqlCommandType.UPDATE : SqlCommandType.INSERT).build();
+    return MultiRowInsert.of(ms, boundSql(ms));
+  }
+
+  private BoundSql boundSql(MappedStatement ms) {
+    return ms.getBoundSql(null);
+  }
+
+}
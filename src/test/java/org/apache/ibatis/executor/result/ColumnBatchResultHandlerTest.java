@@ -0,0 +1,109 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.executor.result.ColumnBatch.ColumnType;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ColumnBatchResultHandlerTest {
+
+  @Mock
+  private ResultSet rs;
+
+  @Test
+  void shouldReadRowsIntoColumnBatches() throws Exception {
+    when(rs.next()).thenReturn(true, true, true, false);
+    when(rs.getInt(1)).thenReturn(1, 2, 0);
+    when(rs.getDouble(2)).thenReturn(1.5, 2.5, 3.5);
+    when(rs.getString(3)).thenReturn("a", null, "c");
+    when(rs.wasNull()).thenReturn(false, false, false, false, true, false);
+
+    final List<String> summaries = new ArrayList<>();
+    ColumnBatchResultHandler resultHandler = new ColumnBatchResultHandler(2, batch -> {
+      assertEquals(ColumnType.INT, batch.getColumnType(0));
+      assertEquals(ColumnType.DOUBLE, batch.getColumnType(batch.getColumnIndex("amount")));
+      assertEquals(ColumnType.OBJECT, batch.getColumnType(2));
+      StringBuilder summary = new StringBuilder();
+      for (int row = 0; row < batch.getRowCount(); row++) {
+        summary.append(batch.isNull(0, row) ? "null" : batch.getInt(0, row)).append('/')
+            .append(batch.getDouble(1, row)).append('/').append(batch.getObject(2, row)).append(' ');
+      }
+      summaries.add(summary.toString().trim());
+    });
+    resultHandler.handleResultSet(rs, Arrays.asList("ID", "AMOUNT", "NAME"), Arrays.asList(JdbcType.INTEGER, JdbcType.DOUBLE, JdbcType.VARCHAR),
+        new TypeHandlerRegistry(), Integer.MAX_VALUE);
+
+    assertEquals(Arrays.asList("1/1.5/a 2/2.5/null", "null/3.5/c"), summaries);
+  }
+
+  @Test
+  void shouldStopAtLimit() throws Exception {
+    when(rs.next()).thenReturn(true);
+    when(rs.getLong(1)).thenReturn(7L);
+
+    final List<long[]> values = new ArrayList<>();
+    new ColumnBatchResultHandler(10, batch -> values.add(Arrays.copyOf(batch.getLongColumn(0), batch.getRowCount())))
+        .handleResultSet(rs, Arrays.asList("ID"), Arrays.asList(JdbcType.BIGINT), new TypeHandlerRegistry(), 3);
+
+    assertEquals(1, values.size());
+    assertArrayEquals(new long[] {7L, 7L, 7L}, values.get(0));
+  }
+
+  @Test
+  void shouldTrackNullsAndResetBetweenBatches() {
+    ColumnBatch batch = new ColumnBatch(Arrays.asList("ID", "NAME"), Arrays.asList(ColumnType.INT, ColumnType.OBJECT), 70);
+    for (int row = 0; row < 70; row++) {
+      batch.setInt(0, row);
+      batch.setObject(1, row % 2 == 0 ? "x" : null);
+      if (row % 2 != 0) {
+        batch.setNull(1);
+      }
+      batch.nextRow();
+    }
+    assertTrue(batch.isFull());
+    assertFalse(batch.isNull(1, 64));
+    assertTrue(batch.isNull(1, 65));
+    assertEquals(69, batch.getInt(0, 69));
+    assertNull(batch.getObject(1, 69));
+    assertThrows(IllegalStateException.class, () -> batch.getLongColumn(0));
+
+    batch.clear();
+    assertEquals(0, batch.getRowCount());
+    assertEquals(0L, batch.getNullBitmap(1)[1]);
+    assertNull(batch.getObjectColumn(1)[0]);
+    assertThrows(IndexOutOfBoundsException.class, () -> batch.getInt(0, 0));
+  }
+
+}
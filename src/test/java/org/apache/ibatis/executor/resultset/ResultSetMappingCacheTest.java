@@ -0,0 +1,65 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.Test;
+
+class ResultSetMappingCacheTest {
+
+  private static final List<String> CLASS_NAMES = Arrays.asList("java.lang.Integer", "java.lang.String");
+
+  @Test
+  void shouldShareEntriesBetweenResultSetsWithTheSameColumns() {
+    ResultSetMappingCache cache = new ResultSetMappingCache();
+    ResultSetMappingCache.Entry entry = cache.getEntry(Arrays.asList("ID", "NAME"), Arrays.asList(JdbcType.INTEGER, JdbcType.VARCHAR), CLASS_NAMES);
+    assertSame(entry, cache.getEntry(Arrays.asList("ID", "NAME"), Arrays.asList(JdbcType.INTEGER, JdbcType.VARCHAR), CLASS_NAMES));
+    assertNotSame(entry, cache.getEntry(Arrays.asList("id", "NAME"), Arrays.asList(JdbcType.INTEGER, JdbcType.VARCHAR), CLASS_NAMES));
+    assertNotSame(entry, cache.getEntry(Arrays.asList("ID", "NAME"), Arrays.asList(JdbcType.INTEGER, JdbcType.CHAR), CLASS_NAMES));
+    assertEquals(3, cache.getEntryCount());
+  }
+
+  @Test
+  void shouldBoundTheNumberOfSignatures() {
+    ResultSetMappingCache cache = new ResultSetMappingCache(2);
+    for (int i = 0; i < 10; i++) {
+      cache.getEntry(Arrays.asList("ID", "NAME" + i), Arrays.asList(JdbcType.INTEGER, JdbcType.VARCHAR), CLASS_NAMES);
+    }
+    assertEquals(2, cache.getEntryCount());
+  }
+
+  @Test
+  void shouldNotShareEntriesWhenDisabled() {
+    ResultSetMappingCache cache = new ResultSetMappingCache(0);
+    ResultSetMappingCache.Entry entry = cache.getEntry(Arrays.asList("ID", "NAME"), Arrays.asList(JdbcType.INTEGER, JdbcType.VARCHAR), CLASS_NAMES);
+    assertNotSame(entry, cache.getEntry(Arrays.asList("ID", "NAME"), Arrays.asList(JdbcType.INTEGER, JdbcType.VARCHAR), CLASS_NAMES));
+    assertEquals(0, cache.getEntryCount());
+  }
+
+  @Test
+  void shouldRejectNegativeSize() {
+    assertThrows(IllegalArgumentException.class, () -> new ResultSetMappingCache(-1));
+  }
+
+}
@@ -0,0 +1,70 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveFetchSizeTest {
+
+  @Test
+  void shouldUseInitialFetchSizeForNewStatement() {
+    AdaptiveFetchSize adaptiveFetchSize = new AdaptiveFetchSize();
+    assertEquals(25, adaptiveFetchSize.getFetchSize("select", 25));
+  }
+
+  @Test
+  void shouldGrowWhenRowsNeedSeveralRoundTrips() {
+    AdaptiveFetchSize adaptiveFetchSize = new AdaptiveFetchSize();
+    adaptiveFetchSize.record("select", 10, 1000, 100);
+    assertEquals(20, adaptiveFetchSize.getFetchSize("select", 10));
+    adaptiveFetchSize.record("select", 20, 1000, 100);
+    assertEquals(40, adaptiveFetchSize.getFetchSize("select", 10));
+  }
+
+  @Test
+  void shouldKeepFetchSizeWhenRowsFitInOneRoundTrip() {
+    AdaptiveFetchSize adaptiveFetchSize = new AdaptiveFetchSize();
+    adaptiveFetchSize.record("select", 40, 30, 100);
+    assertEquals(40, adaptiveFetchSize.getFetchSize("select", 10));
+  }
+
+  @Test
+  void shouldNotExceedMemoryBudgetOfWideRows() {
+    AdaptiveFetchSize adaptiveFetchSize = new AdaptiveFetchSize();
+    int rowWidth = AdaptiveFetchSize.FETCH_BUFFER_BYTES / 100;
+    adaptiveFetchSize.record("select", 80, 100000, rowWidth);
+    assertEquals(100, adaptiveFetchSize.getFetchSize("select", 10));
+    adaptiveFetchSize.record("select", 100, 100000, rowWidth);
+    assertEquals(100, adaptiveFetchSize.getFetchSize("select", 10));
+  }
+
+  @Test
+  void shouldNotExceedMaximumFetchSize() {
+    AdaptiveFetchSize adaptiveFetchSize = new AdaptiveFetchSize();
+    adaptiveFetchSize.record("select", AdaptiveFetchSize.MAX_FETCH_SIZE, Integer.MAX_VALUE, 1);
+    assertEquals(AdaptiveFetchSize.MAX_FETCH_SIZE, adaptiveFetchSize.getFetchSize("select", 10));
+  }
+
+  @Test
+  void shouldIgnoreExecutionsWithoutPositiveFetchSize() {
+    AdaptiveFetchSize adaptiveFetchSize = new AdaptiveFetchSize();
+    adaptiveFetchSize.record("select", Integer.MIN_VALUE, 1000, 100);
+    assertEquals(10, adaptiveFetchSize.getFetchSize("select", 10));
+  }
+
+}
@@ -23,10 +23,14 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
 
 import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.FetchSizePolicy;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -145,4 +149,53 @@ class BaseStatementHandlerTest {
         verify(statement).setQueryTimeout(10);
     }
 
+    @Test
+    void specifyAdaptiveFetchSize() throws SQLException {
+        doReturn(FetchSizePolicy.ADAPTIVE).when(configuration).getFetchSizePolicy();
+        configuration.getAdaptiveFetchSize().record("id", 10, 100, 100);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(20); // doubled after rows took several round trips
+    }
+
+    @Test
+    void specifyMappedStatementFetchSizeWithAdaptivePolicy() throws SQLException {
+        doReturn(FetchSizePolicy.ADAPTIVE).when(configuration).getFetchSizePolicy();
+        mappedStatementBuilder.fetchSize(50);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        handler.setFetchSize(statement);
+        handler.prepareStreaming(statement);
+
+        verify(statement).setFetchSize(50); // a fetch size of the statement is never adapted
+    }
+
+    @Test
+    void notStreamUnlessDriverStreamingEnabled() throws SQLException {
+        doReturn(FetchSizePolicy.ADAPTIVE).when(configuration).getFetchSizePolicy();
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        handler.prepareStreaming(statement);
+
+        verifyZeroInteractions(statement);
+    }
+
+    @Test
+    void notStreamWhenNestedResultMapHasNestedSelect() throws SQLException {
+        doReturn(FetchSizePolicy.ADAPTIVE).when(configuration).getFetchSizePolicy();
+        doReturn(true).when(configuration).isDriverStreamingEnabled();
+        configuration.addResultMap(new ResultMap.Builder(configuration, "author", Object.class, Collections.singletonList(
+            new ResultMapping.Builder(configuration, "posts", "id", Object.class).nestedQueryId("selectPosts").build())).build());
+        ResultMap blog = new ResultMap.Builder(configuration, "blog", Object.class, Collections.singletonList(
+            new ResultMapping.Builder(configuration, "author").nestedResultMapId("author").build())).build();
+        mappedStatementBuilder.resultMaps(Collections.singletonList(blog));
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        handler.prepareStreaming(statement);
+
+        verifyZeroInteractions(statement);
+    }
+
 }
@@ -0,0 +1,73 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class StatementCancellationTest {
+
+  @Mock
+  Statement statement;
+
+  @Test
+  void shouldCancelRegisteredStatement() throws SQLException {
+    StatementCancellation cancellation = new StatementCancellation();
+    cancellation.bind();
+    try {
+      StatementCancellation.register(statement);
+      cancellation.cancel();
+      verify(statement).cancel();
+      assertTrue(cancellation.isCancelled());
+    } finally {
+      cancellation.unbind();
+    }
+  }
+
+  @Test
+  void shouldRejectStatementPreparedAfterCancellation() throws SQLException {
+    StatementCancellation cancellation = new StatementCancellation();
+    cancellation.bind();
+    try {
+      cancellation.cancel();
+      assertThrows(SQLException.class, () -> StatementCancellation.register(statement));
+    } finally {
+      cancellation.unbind();
+    }
+  }
+
+  @Test
+  void shouldIgnoreStatementsOfUnboundThreads() throws SQLException {
+    StatementCancellation cancellation = new StatementCancellation();
+    cancellation.bind();
+    cancellation.unbind();
+    StatementCancellation.register(statement);
+    cancellation.cancel();
+    verify(statement, never()).cancel();
+  }
+
+}
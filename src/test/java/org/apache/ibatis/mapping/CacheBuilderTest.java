@@ -15,14 +15,28 @@
  */
 package org.apache.ibatis.mapping;
 
+import org.apache.ibatis.annotations.CacheNamespace;
 import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.ConcurrentPerpetualCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.Configuration;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.googlecode.catchexception.apis.BDDCatchException.*;
 import static org.assertj.core.api.BDDAssertions.then;
@@ -43,6 +57,60 @@ class CacheBuilderTest {
       .hasMessage("Failed cache initialization for 'test' on 'org.apache.ibatis.mapping.CacheBuilderTest$InitializingFailureCache'");
   }
 
+  @Test
+  void shouldNotSynchronizeThreadSafeCache() {
+    Cache cache = new CacheBuilder("test").implementation(ConcurrentPerpetualCache.class).readWrite(true).build();
+
+    Assertions.assertThat(cache).isInstanceOf(LoggingCache.class);
+  }
+
+  @Test
+  void shouldSynchronizeThreadSafeCacheWithUnsafeDecorator() {
+    Cache cache = new CacheBuilder("test").implementation(ConcurrentPerpetualCache.class).addDecorator(LruCache.class).build();
+
+    Assertions.assertThat(cache).isInstanceOf(SynchronizedCache.class);
+  }
+
+  @Test
+  void shouldNotApplyDefaultEvictionToThreadSafeCache() throws Exception {
+    Configuration configuration = new Configuration();
+    String mapper = "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">"
+        + "<mapper namespace=\"concurrent\"><cache type=\"CONCURRENT_PERPETUAL\"/></mapper>";
+    try (InputStream inputStream = new ByteArrayInputStream(mapper.getBytes(StandardCharsets.UTF_8))) {
+      new XMLMapperBuilder(inputStream, configuration, "concurrent.xml", configuration.getSqlFragments()).parse();
+    }
+    configuration.addMapper(ConcurrentCacheMapper.class);
+
+    Assertions.assertThat(decoratorsOf(configuration.getCache("concurrent")))
+      .doesNotContain(SynchronizedCache.class, LruCache.class);
+    Assertions.assertThat(decoratorsOf(configuration.getCache(ConcurrentCacheMapper.class.getName())))
+      .doesNotContain(SynchronizedCache.class, LruCache.class);
+  }
+
+  @Test
+  void shouldApplyDefaultEvictionToPerpetualCache() {
+    Cache cache = new CacheBuilder("test").implementation(PerpetualCache.class).build();
+
+    Assertions.assertThat(decoratorsOf(cache)).contains(SynchronizedCache.class, LruCache.class);
+  }
+
+  @Test
+  void shouldSynchronizePerpetualCache() {
+    Cache cache = new CacheBuilder("test").build();
+
+    Assertions.assertThat(cache).isInstanceOf(SynchronizedCache.class);
+  }
+
+  private List<Class<?>> decoratorsOf(Cache cache) {
+    List<Class<?>> decorators = new ArrayList<>();
+    for (Object current = cache; current != null; ) {
+      decorators.add(current.getClass());
+      MetaObject metaCache = SystemMetaObject.forObject(current);
+      current = metaCache.hasGetter("delegate") ? metaCache.getValue("delegate") : null;
+    }
+    return decorators;
+  }
+
   @SuppressWarnings("unchecked")
   private <T> T unwrap(Cache cache) {
     Field field;
@@ -61,6 +129,10 @@ class CacheBuilderTest {
     }
   }
 
+  @CacheNamespace(implementation = ConcurrentPerpetualCache.class)
+  interface ConcurrentCacheMapper {
+  }
+
   private static class InitializingCache extends PerpetualCache implements InitializingObject {
 
     private boolean initialized;
@@ -0,0 +1,75 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class ResultMapTest {
+
+  private final Configuration configuration = new Configuration();
+
+  @Test
+  void shouldFindNestedQueriesOfNestedResultMaps() {
+    addResultMap("author", new ResultMapping.Builder(configuration, "posts", "id", Object.class)
+        .nestedQueryId("selectPosts").build());
+    ResultMap blog = addResultMap("blog", new ResultMapping.Builder(configuration, "author")
+        .nestedResultMapId("author").build());
+
+    assertFalse(blog.hasNestedQueries());
+    assertTrue(blog.hasAnyNestedQueries());
+  }
+
+  @Test
+  void shouldFindNestedQueriesOfDiscriminatorCases() {
+    addResultMap("draftPost", new ResultMapping.Builder(configuration, "comments", "id", Object.class)
+        .nestedQueryId("selectComments").build());
+    ResultMapping type = new ResultMapping.Builder(configuration, null, "type", String.class).build();
+    ResultMap post = new ResultMap.Builder(configuration, "post", Object.class, new ArrayList<>())
+        .discriminator(new Discriminator.Builder(configuration, type, Collections.singletonMap("D", "draftPost")).build())
+        .build();
+    configuration.addResultMap(post);
+
+    assertFalse(post.hasNestedQueries());
+    assertTrue(post.hasAnyNestedQueries());
+  }
+
+  @Test
+  void shouldStopAtCyclesOfNestedResultMaps() {
+    ResultMap parent = addResultMap("parent", new ResultMapping.Builder(configuration, "child")
+        .nestedResultMapId("child").build());
+    addResultMap("child", new ResultMapping.Builder(configuration, "parent")
+        .nestedResultMapId("parent").build());
+
+    assertFalse(parent.hasAnyNestedQueries());
+  }
+
+  private ResultMap addResultMap(String id, ResultMapping... resultMappings) {
+    List<ResultMapping> mappings = new ArrayList<>(Arrays.asList(resultMappings));
+    ResultMap resultMap = new ResultMap.Builder(configuration, id, Object.class, mappings).build();
+    configuration.addResultMap(resultMap);
+    return resultMap;
+  }
+
+}
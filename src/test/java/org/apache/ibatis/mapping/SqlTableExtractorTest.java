@@ -0,0 +1,95 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class SqlTableExtractorTest {
+
+  @Test
+  void shouldFindTablesOfSelect() {
+    assertEquals(tables("blog", "author", "post"), SqlTableExtractor.extract(
+        "select * from Blog b join author a on b.author_id = a.id left outer join POST as p on p.blog_id = b.id where b.id = ?"));
+  }
+
+  @Test
+  void shouldFindCommaSeparatedTables() {
+    assertEquals(tables("blog", "author"), SqlTableExtractor.extract(
+        "SELECT b.id FROM blog b, author a WHERE b.author_id = a.id"));
+  }
+
+  @Test
+  void shouldFindTablesOfSubqueries() {
+    assertEquals(tables("blog", "post"), SqlTableExtractor.extract(
+        "select * from (select * from blog) x where exists (select 1 from post p where p.blog_id = x.id)"));
+  }
+
+  @Test
+  void shouldFindTablesListedAfterDerivedTable() {
+    assertEquals(tables("a", "b", "c"), SqlTableExtractor.extract("select * from a, (select id from b) s, c"));
+    assertEquals(tables("a", "b", "c"), SqlTableExtractor.extract("select * from a, (select id from b) as s, c where 1 = 1"));
+  }
+
+  @Test
+  void shouldFindTablesListedAfterJoinCondition() {
+    assertEquals(tables("a", "b", "c"), SqlTableExtractor.extract("select * from a join b on a.x=b.x, c"));
+    assertEquals(tables("a", "b", "c", "d"), SqlTableExtractor.extract(
+        "select * from a join b on a.x = coalesce(b.x, 0), c join d using (id) order by a.x, c.y"));
+  }
+
+  @Test
+  void shouldReturnEmptySetWhenTableListCannotBeRead() {
+    assertEquals(Collections.emptySet(), SqlTableExtractor.extract("select * from a, (select id from b s, c"));
+    assertEquals(Collections.emptySet(), SqlTableExtractor.extract("select * from a, ? where 1 = 1"));
+  }
+
+  @Test
+  void shouldFindTablesOfWrites() {
+    assertEquals(tables("blog"), SqlTableExtractor.extract("insert into blog (id, title) values (?, ?)"));
+    assertEquals(tables("blog"), SqlTableExtractor.extract("update blog set title = ? where id = ?"));
+    assertEquals(tables("blog"), SqlTableExtractor.extract("delete from blog where id = ?"));
+    assertEquals(tables("blog", "author"), SqlTableExtractor.extract("insert into blog select * from author"));
+  }
+
+  @Test
+  void shouldStripSchemasAndQuotes() {
+    assertEquals(tables("blog", "author", "post"), SqlTableExtractor.extract(
+        "select * from blogs.\"Blog\" join `shop`.`author` on 1 = 1 join [dbo].[post] on 1 = 1"));
+  }
+
+  @Test
+  void shouldIgnoreLiteralsAndComments() {
+    assertEquals(tables("blog"), SqlTableExtractor.extract(
+        "select 'from author' -- from post\n from blog /* join comment */ where title <> 'x'"));
+  }
+
+  @Test
+  void shouldReturnEmptySetWhenNoTableIsFound() {
+    assertEquals(Collections.emptySet(), SqlTableExtractor.extract("call update_statistics()"));
+  }
+
+  private static Set<String> tables(String... names) {
+    return new LinkedHashSet<>(Arrays.asList(names));
+  }
+
+}
@@ -0,0 +1,143 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.async_mapper_method;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AsyncMapperMethodTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    // create a SqlSessionFactory
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/async_mapper_method/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/async_mapper_method/CreateDB.sql");
+  }
+
+  @Test
+  void shouldSelectOneAsynchronously() throws Exception {
+    CompletableFuture<User> user;
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      user = sqlSession.getMapper(Mapper.class).getUser(1);
+    }
+    // the future does not depend on the calling session
+    assertEquals("User1", user.get().getName());
+  }
+
+  @Test
+  void shouldSelectOptionalAsynchronously() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Optional<User> user = mapper.findUser(2).get();
+      assertTrue(user.isPresent());
+      assertFalse(mapper.findUser(3).get().isPresent());
+    }
+  }
+
+  @Test
+  void shouldSelectListAsynchronously() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.getMapper(Mapper.class).getUsers().toCompletableFuture().get();
+      assertEquals(2, users.size());
+    }
+  }
+
+  @Test
+  void shouldSelectArrayAsynchronously() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      User[] users = sqlSession.getMapper(Mapper.class).getUserArray().get();
+      assertEquals(2, users.length);
+      assertEquals("User2", users[1].getName());
+    }
+  }
+
+  @Test
+  void shouldMapTheValueTheFutureCompletesWith() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    assertEquals(User.class, resultTypeOf(configuration, "getUser"));
+    assertEquals(User.class, resultTypeOf(configuration, "findUser"));
+    assertEquals(User.class, resultTypeOf(configuration, "getUsers"));
+    assertEquals(User.class, resultTypeOf(configuration, "getUserArray"));
+  }
+
+  private static User user(int id) {
+    User user = new User();
+    user.setId(id);
+    user.setName("User" + id);
+    return user;
+  }
+
+  private Class<?> resultTypeOf(Configuration configuration, String methodName) {
+    return configuration.getMappedStatement(Mapper.class.getName() + "." + methodName).getResultMaps().get(0).getType();
+  }
+
+  @Test
+  void shouldNotRunWritesAsynchronously() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThrows(BindingException.class, () -> mapper.insertUserAsynchronously(user(3)));
+      assertNull(mapper.getUser(3).get());
+    }
+  }
+
+  @Test
+  void shouldNotSeeWritesRolledBackByTheCallingSession() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(1, mapper.insertUser(user(3)));
+      sqlSession.rollback();
+      assertNull(mapper.getUser(3).get());
+      assertEquals(2, mapper.getUsers().toCompletableFuture().get().size());
+    }
+  }
+
+  @Test
+  void shouldCompleteExceptionallyOnError() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      CompletableFuture<List<User>> users = sqlSession.getMapper(Mapper.class).getFromMissingTable();
+      ExecutionException e = assertThrows(ExecutionException.class, users::get);
+      assertTrue(e.getCause() instanceof PersistenceException);
+    }
+  }
+
+}
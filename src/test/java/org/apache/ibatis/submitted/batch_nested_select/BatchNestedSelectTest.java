@@ -0,0 +1,126 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_nested_select;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.Reader;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchNestedSelectTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+  private static QueryCounter queryCounter = new QueryCounter();
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    // create a SqlSessionFactory
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_nested_select/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().addInterceptor(queryCounter);
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_nested_select/CreateDB.sql");
+  }
+
+  @BeforeEach
+  void resetCounter() {
+    queryCounter.count.set(0);
+  }
+
+  @Test
+  void shouldLoadEagerCollectionsWithOneBatchQuery() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Person> persons = mapper.selectPersons();
+      assertEquals(2, queryCounter.count.get());
+      assertEquals(3, persons.size());
+      assertEquals(2, persons.get(0).getPets().size());
+      assertEquals("Rex", persons.get(0).getPets().get(0).getName());
+      assertEquals("Tom", persons.get(0).getPets().get(1).getName());
+      assertEquals(1, persons.get(1).getPets().size());
+      assertEquals("Kitty", persons.get(1).getPets().get(0).getName());
+      assertEquals(0, persons.get(2).getPets().size());
+    }
+  }
+
+  @Test
+  void shouldLoadLazyCollectionsOfSiblingRowsTogether() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Person> persons = mapper.selectPersonsLazily();
+      assertEquals(1, queryCounter.count.get());
+      assertEquals(2, persons.get(0).getPets().size());
+      assertEquals(2, queryCounter.count.get());
+      assertEquals(1, persons.get(1).getPets().size());
+      assertEquals(0, persons.get(2).getPets().size());
+      assertEquals(2, queryCounter.count.get());
+    }
+  }
+
+  @Test
+  void shouldNotShareBatchesOfSameNamedPropertiesOfDifferentResultMaps() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Person> persons = mapper.selectPersonsWithNeighbours();
+      assertEquals(3, queryCounter.count.get());
+      assertEquals(3, persons.size());
+      assertEquals(2, persons.get(0).getPets().size());
+      assertEquals(Integer.valueOf(1), persons.get(0).getPets().get(0).getId());
+      Person neighbour = persons.get(0).getNeighbour();
+      assertEquals("Jane", neighbour.getName());
+      assertEquals(1, neighbour.getPets().size());
+      assertEquals("Kitty", neighbour.getPets().get(0).getName());
+      assertNull(neighbour.getPets().get(0).getId());
+      assertEquals(1, persons.get(1).getPets().size());
+      assertEquals(0, persons.get(1).getNeighbour().getPets().size());
+      assertNull(persons.get(2).getNeighbour());
+    }
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "query", args = { Statement.class, ResultHandler.class }))
+  static class QueryCounter implements Interceptor {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      count.incrementAndGet();
+      return invocation.proceed();
+    }
+  }
+
+}
@@ -0,0 +1,144 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_statement_grouping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchExecutorException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchStatementGroupingTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private PrepareCounter prepareCounter = new PrepareCounter();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    // create a SqlSessionFactory
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_statement_grouping/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().addInterceptor(prepareCounter);
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_statement_grouping/CreateDB.sql");
+  }
+
+  @Test
+  void shouldGroupInterleavedStatementsAndReportResultsInCallOrder() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertParent(1, "Parent1");
+      mapper.insertChild(1, 1);
+      mapper.insertParent(2, "Parent2");
+      mapper.insertChild(2, 2);
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, prepareCounter.count.get());
+      assertEquals(4, results.size());
+      for (int i = 0; i < results.size(); i++) {
+        String expectedId = i % 2 == 0 ? "insertParent" : "insertChild";
+        assertEquals(Mapper.class.getName() + "." + expectedId, results.get(i).getMappedStatement().getId());
+        assertEquals(1, results.get(i).getUpdateCounts().length);
+        assertEquals(1, results.get(i).getParameterObjects().size());
+      }
+      assertEquals(2, mapper.countChildren());
+    }
+  }
+
+  @Test
+  void shouldNotMoveCallAheadOfDeclaredDependency() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertChild(1, 0);
+      mapper.insertParent(1, "Parent1");
+      // would violate the foreign key if run together with the first child
+      mapper.insertChild(2, 1);
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, prepareCounter.count.get());
+      assertEquals(3, results.size());
+      assertEquals(Mapper.class.getName() + ".insertChild", results.get(2).getMappedStatement().getId());
+      assertEquals(2, mapper.countChildren());
+    }
+  }
+
+  @Test
+  void shouldNotMoveCallAheadOfStatementOnSameTable() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertParent(1, "Parent1");
+      mapper.updateParentName(0, "Renamed");
+      mapper.insertParent(2, "Parent2");
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, prepareCounter.count.get());
+      assertEquals(3, results.size());
+    }
+  }
+
+  @Test
+  void shouldReportSuccessfulResultsOfFailedFlushInCallOrder() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertParent(1, "Parent1");
+      mapper.insertChild(1, 1);
+      mapper.insertParent(2, "Parent2");
+      // violates the foreign key
+      mapper.insertChild(2, 99);
+      PersistenceException e = assertThrows(PersistenceException.class, sqlSession::flushStatements);
+      BatchExecutorException cause = (BatchExecutorException) e.getCause();
+      assertEquals(Mapper.class.getName() + ".insertChild", cause.getFailingStatementId());
+      List<BatchResult> results = cause.getSuccessfulBatchResults();
+      assertEquals(2, results.size());
+      for (BatchResult result : results) {
+        assertEquals(Mapper.class.getName() + ".insertParent", result.getMappedStatement().getId());
+        assertEquals(1, result.getParameterObjects().size());
+      }
+    }
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class, Integer.class }))
+  static class PrepareCounter implements Interceptor {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      count.incrementAndGet();
+      return invocation.proceed();
+    }
+  }
+
+}
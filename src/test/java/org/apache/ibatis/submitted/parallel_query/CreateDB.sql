@@ -0,0 +1,36 @@
+--
+--    Copyright 2009-2019 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table product if exists;
+drop table category if exists;
+
+create table category (
+  id int,
+  name varchar(20)
+);
+
+create table product (
+  id int,
+  category_id int,
+  name varchar(20)
+);
+
+insert into category values(1, 'Books');
+insert into category values(2, 'Music');
+
+insert into product values(1, 1, 'Dune');
+insert into product values(2, 1, 'Emma');
+insert into product values(3, 2, 'Blue Train');
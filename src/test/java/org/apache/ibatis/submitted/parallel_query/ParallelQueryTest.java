@@ -0,0 +1,99 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ParallelQuery;
+import org.apache.ibatis.session.ParallelQueryResult;
+import org.apache.ibatis.session.SqlSessionException;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ParallelQueryTest {
+
+  private static final String NAMESPACE = "org.apache.ibatis.submitted.parallel_query.Mapper.";
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    // create a SqlSessionFactory
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_query/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/parallel_query/CreateDB.sql");
+  }
+
+  @Test
+  void shouldRunSelectsInParallel() {
+    ParallelQuery query = new ParallelQuery()
+        .select("categories", NAMESPACE + "selectCategoryNames")
+        .select("books", NAMESPACE + "selectProductNames", 1)
+        .select("music", NAMESPACE + "selectProductNames", 2);
+    ParallelQueryResult result = sqlSessionFactory.selectParallel(query);
+    assertEquals(Arrays.asList("categories", "books", "music"), Arrays.asList(result.getNames().toArray()));
+    assertEquals(Arrays.asList("Books", "Music"), result.getList("categories"));
+    assertEquals(Arrays.asList("Dune", "Emma"), result.getList("books"));
+    assertEquals(Arrays.asList("Blue Train"), result.getList("music"));
+  }
+
+  @Test
+  void shouldRunSelectsOnGivenExecutor() {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      ParallelQuery query = new ParallelQuery()
+          .select("books", NAMESPACE + "selectProductNames", 1)
+          .select("music", NAMESPACE + "selectProductNames", 2);
+      ParallelQueryResult result = sqlSessionFactory.selectParallel(query, executor);
+      assertEquals(2, result.getList("books").size());
+      assertEquals(1, result.getList("music").size());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void shouldThrowExceptionOfFailedSelect() {
+    ParallelQuery query = new ParallelQuery()
+        .select("categories", NAMESPACE + "selectCategoryNames")
+        .select("missing", NAMESPACE + "selectFromMissingTable");
+    assertThrows(PersistenceException.class, () -> sqlSessionFactory.selectParallel(query));
+  }
+
+  @Test
+  void shouldRejectDuplicateAndUnknownNames() {
+    ParallelQuery query = new ParallelQuery().select("categories", NAMESPACE + "selectCategoryNames");
+    assertThrows(SqlSessionException.class, () -> query.select("categories", NAMESPACE + "selectCategoryNames"));
+    ParallelQueryResult result = sqlSessionFactory.selectParallel(query);
+    assertThrows(SqlSessionException.class, () -> result.getList("books"));
+  }
+
+}
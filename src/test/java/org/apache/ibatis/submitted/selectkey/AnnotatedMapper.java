@@ -51,6 +51,10 @@ public interface AnnotatedMapper {
     @SelectKey(statement="call next value for TestSequence", keyProperty="nameId", before=true, resultType=int.class)
     int insertTable3(Name name);
 
+    @Insert("insert into table3 (id, name) values(#{nameId}, #{name})")
+    @SelectKey(statement="select next value for TestSequence from unnest(sequence_array(1, 3, 1))", keyProperty="nameId", before=true, resultType=int.class, prefetch=true)
+    int insertTable3WithPrefetchedKeys(Name name);
+
     @InsertProvider(type=SqlProvider.class,method="insertTable3_2")
     @SelectKey(statement="call next value for TestSequence", keyProperty="nameId", before=true, resultType=int.class)
     int insertTable3_2(Name name);
@@ -16,8 +16,13 @@
 package org.apache.ibatis.submitted.selectkey;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.SelectKey;
+import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.exceptions.PersistenceException;
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
@@ -30,7 +35,9 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 class SelectKeyTest {
@@ -320,6 +327,29 @@ class SelectKeyTest {
       }
   }
 
+  @Test
+  void testAnnotatedInsertTable3WithPrefetchedKeys() {
+      try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+        AnnotatedMapper mapper = sqlSession.getMapper(AnnotatedMapper.class);
+        List<Name> names = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+          Name name = new Name();
+          name.setName("barney" + i);
+          mapper.insertTable3WithPrefetchedKeys(name);
+          names.add(name);
+        }
+        sqlSession.flushStatements();
+        for (int i = 0; i < 4; i++) {
+          assertEquals(33 + i, names.get(i).getNameId());
+        }
+        // two blocks of three keys were reserved
+        Name name = new Name();
+        name.setName("fred");
+        mapper.insertTable3(name);
+        assertEquals(39, name.getNameId());
+      }
+  }
+
   @Test
   void testAnnotatedInsertTable3_2() {
       try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
@@ -341,4 +371,18 @@ class SelectKeyTest {
           () -> sqlSession.insert("org.apache.ibatis.submitted.selectkey.Table2.insertWrongKeyProperty", name));
     }
   }
+
+  @Test
+  void testPrefetchedKeysMustNotDependOnTheParameter() {
+    Configuration configuration = new Configuration();
+    BuilderException e = Assertions.assertThrows(BuilderException.class,
+        () -> configuration.addMapper(PrefetchingMapper.class));
+    assertTrue(e.getMessage().contains("Cannot prefetch the keys"));
+  }
+
+  interface PrefetchingMapper {
+    @Insert("insert into table3 (id, name) values(#{nameId}, #{name})")
+    @SelectKey(statement="select next value for TestSequence from unnest(sequence_array(1, #{blockSize}, 1))", keyProperty="nameId", before=true, resultType=int.class, prefetch=true)
+    int insertTable3WithPrefetchedKeys(Name name);
+  }
 }